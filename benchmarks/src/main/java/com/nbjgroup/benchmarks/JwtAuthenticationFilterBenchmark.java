@@ -0,0 +1,89 @@
+package com.nbjgroup.benchmarks;
+
+import com.nbjgroup.entity.User;
+import com.nbjgroup.security.AuthMetrics;
+import com.nbjgroup.security.JwtAuthenticationFilter;
+import com.nbjgroup.security.JwtTokenProvider;
+import com.nbjgroup.security.PrincipalCache;
+import com.nbjgroup.security.PublicRouteMatcher;
+import com.nbjgroup.security.UserRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JwtAuthenticationFilter with a no-op filter chain.
+ * "cached" resolves the principal through the principal cache, "stateless" trusts role claims
+ * in the token, and "public" measures a request the filter skips via PublicRouteMatcher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({"cached", "stateless", "public"})
+    public String mode;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = JwtTokenProviderBenchmark.createTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "statelessAuth", "stateless".equals(mode));
+
+        // The filter only reads the in-memory list, so the transaction manager is never used
+        UserRevocationList revocationList = new UserRevocationList(new JpaTransactionManager());
+        ReflectionTestUtils.setField(revocationList, "jwtExpirationInMs", 86400000L);
+
+        // Stands in for the database lookup; with a warm principal cache it is never reached
+        UserDetails principal = new org.springframework.security.core.userdetails.User(
+                JwtTokenProviderBenchmark.USERNAME, "",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_TENANT")));
+        UserDetailsService userDetailsService = username -> principal;
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "principalCache", new PrincipalCache(10000, 60000));
+        ReflectionTestUtils.setField(filter, "revocationList", revocationList);
+        ReflectionTestUtils.setField(filter, "publicRouteMatcher", new PublicRouteMatcher());
+        ReflectionTestUtils.setField(filter, "authMetrics", new AuthMetrics(new SimpleMeterRegistry()));
+
+        User user = new User();
+        user.setEmail(JwtTokenProviderBenchmark.USERNAME);
+        user.setRole(User.Role.TENANT);
+        user.setIsActive(true);
+
+        request = new MockHttpServletRequest("GET", "public".equals(mode) ? "/api/auth/login" : "/api/dashboard/tenant");
+        request.setContextPath("/api");
+        request.addHeader("Authorization", "Bearer " + tokenProvider.generateAccessToken(user));
+    }
+
+    @Benchmark
+    public int doFilter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+}
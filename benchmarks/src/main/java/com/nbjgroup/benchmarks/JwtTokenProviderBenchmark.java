@@ -0,0 +1,104 @@
+package com.nbjgroup.benchmarks;
+
+import com.nbjgroup.security.AuthMetrics;
+import com.nbjgroup.security.JwtTokenProvider;
+import com.nbjgroup.security.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign, verify, validate and claim extraction throughput of JwtTokenProvider.
+ * The "legacy" benchmarks reproduce the previous behaviour of rebuilding the HMAC key and
+ * the parser on every call, so before and after can be compared in a single run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtTokenProviderBenchmark {
+
+    static final String SECRET = "TDh4L0E/RChHK0tiUGVTaFZtWXEzdDZ3OXokQyZGKUpATmNRZlRqV25acjR1N3ghQSVEKkctS2FQZFNnVWtYcA==";
+    static final String USERNAME = "john.doe@email.com";
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = createTokenProvider();
+        token = tokenProvider.generateTokenFromUsername(USERNAME);
+    }
+
+    /**
+     * Build a JwtTokenProvider the way Spring would, without starting a context
+     */
+    static JwtTokenProvider createTokenProvider() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 86400000L);
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationInMs", 604800000L);
+        ReflectionTestUtils.setField(provider, "jwtKeyId", "primary");
+        ReflectionTestUtils.setField(provider, "jwtVerificationKeys", "");
+        ReflectionTestUtils.setField(provider, "jwtKeyFile", "");
+        ReflectionTestUtils.setField(provider, "unkeyedTokensUntil", "");
+        ReflectionTestUtils.setField(provider, "authMetrics", new AuthMetrics(new SimpleMeterRegistry()));
+        provider.init();
+        return provider;
+    }
+
+    @Benchmark
+    public String signPrecomputed() {
+        return tokenProvider.generateTokenFromUsername(USERNAME);
+    }
+
+    @Benchmark
+    public ParsedToken verifyPrecomputed() {
+        return tokenProvider.parseToken(token);
+    }
+
+    @Benchmark
+    public Boolean validate() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return tokenProvider.getUsernameFromToken(token);
+    }
+
+    @Benchmark
+    public String signLegacy() {
+        return Jwts.builder()
+                .setClaims(Map.of("type", "access"))
+                .setSubject(USERNAME)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86400000L))
+                .signWith(legacySigningKey(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verifyLegacy() {
+        return Jwts.parserBuilder()
+                .setSigningKey(legacySigningKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes());
+    }
+}
@@ -0,0 +1,85 @@
+package com.nbjgroup.benchmarks;
+
+import com.nbjgroup.dto.TenantSummary;
+import com.nbjgroup.entity.Tenant;
+import com.nbjgroup.entity.User;
+import com.nbjgroup.service.TenantDirectory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TenantDirectory type-ahead lookups over a populated directory, reported as average time per
+ * lookup. The admin type-ahead needs each lookup well under a millisecond at the tenant counts
+ * measured here. Tenants are added with put() outside a transaction, so they are indexed at once
+ * and no database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TenantDirectoryBenchmark {
+
+    private static final String[] FIRST_NAMES = {"John", "Maria", "Ahmed", "Li", "Sofia", "Kwame", "Elena", "Raj"};
+    private static final String[] LAST_NAMES = {"Doe", "Garcia", "Hassan", "Wang", "Rossi", "Mensah", "Novak", "Patel"};
+    private static final String[] STREETS = {"Main Street", "Oak Avenue", "Harbour Road", "Station Lane", "Elm Court"};
+
+    @Param({"1000", "10000", "50000"})
+    public int tenants;
+
+    private TenantDirectory directory;
+
+    @Setup
+    public void setUp() {
+        directory = new TenantDirectory();
+        for (int i = 0; i < tenants; i++) {
+            User user = new User(
+                    FIRST_NAMES[i % FIRST_NAMES.length].toLowerCase() + i + "@email.com", "password",
+                    FIRST_NAMES[i % FIRST_NAMES.length], LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length],
+                    User.Role.TENANT);
+            user.setId((long) i);
+
+            Tenant tenant = new Tenant();
+            tenant.setId((long) i);
+            tenant.setUser(user);
+            tenant.setPropertyAddress((i % 500 + 1) + " " + STREETS[i % STREETS.length]);
+            tenant.setUnitNumber(String.valueOf(i % 40 + 1));
+            directory.put(tenant);
+        }
+    }
+
+    /**
+     * Two-character prefix, served from the prefix grams; matches a large share of tenants
+     */
+    @Benchmark
+    public List<TenantSummary> shortPrefix() {
+        return directory.search("ma", 20);
+    }
+
+    /**
+     * Full surname, intersecting several trigram postings
+     */
+    @Benchmark
+    public List<TenantSummary> surname() {
+        return directory.search("mensah", 20);
+    }
+
+    /**
+     * Infix inside an email address, which a database prefix index cannot serve
+     */
+    @Benchmark
+    public List<TenantSummary> emailInfix() {
+        return directory.search("a4217@", 20);
+    }
+
+    /**
+     * Query that matches no tenant; exits as soon as one trigram has no posting
+     */
+    @Benchmark
+    public List<TenantSummary> noMatch() {
+        return directory.search("zzqx", 20);
+    }
+}
@@ -0,0 +1,93 @@
+package com.nbjgroup.benchmarks;
+
+import com.nbjgroup.entity.User;
+import com.nbjgroup.repository.UserRepository;
+import com.nbjgroup.security.CustomUserDetailsService;
+import com.nbjgroup.security.LastLoginRecorder;
+import com.nbjgroup.security.PrincipalCache;
+import com.nbjgroup.security.RefreshTokenStore;
+import com.nbjgroup.security.UserRevocationList;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CustomUserDetailsService.loadUserByUsername against an embedded H2 database, next to the
+ * same lookup served from the principal cache. Starts a minimal JPA context rather than the
+ * whole application, so no web server or security filter chain is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class UserDetailsServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private CustomUserDetailsService userDetailsService;
+    private PrincipalCache principalCache;
+
+    @Setup
+    public void setUp() {
+        // Command line arguments take precedence over the application.yml bundled in the application jar
+        context = new SpringApplicationBuilder(BenchmarkConfig.class)
+                .run("--spring.main.web-application-type=none",
+                     "--spring.main.banner-mode=off",
+                     "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                     "--spring.datasource.driver-class-name=org.h2.Driver",
+                     "--spring.datasource.username=sa",
+                     "--spring.datasource.password=",
+                     "--spring.jpa.hibernate.ddl-auto=create-drop",
+                     "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                     "--spring.jpa.show-sql=false",
+                     "--logging.level.root=WARN",
+                     "--logging.level.com.nbjgroup=WARN",
+                     "--logging.file.name=");
+
+        User user = new User();
+        user.setEmail(JwtTokenProviderBenchmark.USERNAME);
+        user.setPassword("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchma");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setRole(User.Role.TENANT);
+        context.getBean(UserRepository.class).save(user);
+
+        userDetailsService = context.getBean(CustomUserDetailsService.class);
+        principalCache = context.getBean(PrincipalCache.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(JwtTokenProviderBenchmark.USERNAME);
+    }
+
+    @Benchmark
+    public UserDetails loadUserThroughPrincipalCache() {
+        return principalCache.get(JwtTokenProviderBenchmark.USERNAME, userDetailsService::loadUserByUsername);
+    }
+
+    @Configuration
+    @EnableAutoConfiguration
+    @EnableJpaAuditing
+    @EntityScan("com.nbjgroup.entity")
+    @EnableJpaRepositories("com.nbjgroup.repository")
+    @Import({CustomUserDetailsService.class, PrincipalCache.class, UserRevocationList.class,
+             LastLoginRecorder.class, RefreshTokenStore.class})
+    static class BenchmarkConfig {
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot application class for NBJ Group Tenant Management Platform.
@@ -27,6 +28,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 @ComponentScan(basePackages = "com.nbjgroup")
 @EnableJpaAuditing
 @EnableAsync
+@EnableScheduling
 public class TenantManagementApplication {
 
     public static void main(String[] args) {
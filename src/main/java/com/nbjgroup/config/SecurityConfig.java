@@ -1,8 +1,12 @@
 package com.nbjgroup.config;
 
+import com.nbjgroup.security.AdaptivePasswordEncoder;
 import com.nbjgroup.security.CustomUserDetailsService;
 import com.nbjgroup.security.JwtAuthenticationFilter;
+import com.nbjgroup.security.PublicRouteMatcher;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,7 +18,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -35,9 +38,30 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private PublicRouteMatcher publicRouteMatcher;
+
+    @Value("${app.security.password.strength:0}")
+    private int passwordStrength;
+
+    @Value("${app.security.password.target-hash-ms:250}")
+    private long passwordTargetHashMs;
+
+    @Value("${app.security.password.min-strength:10}")
+    private int passwordMinStrength;
+
+    @Value("${app.security.password.max-strength:14}")
+    private int passwordMaxStrength;
+
+    /**
+     * BCrypt encoder with a fixed cost, or one calibrated at startup when no strength is configured
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+        if (passwordStrength > 0) {
+            return new AdaptivePasswordEncoder(passwordStrength);
+        }
+        return AdaptivePasswordEncoder.calibrated(passwordTargetHashMs, passwordMinStrength, passwordMaxStrength);
     }
 
     @Bean
@@ -50,6 +74,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Rehash stored passwords whose cost is lower than the encoder's on successful login
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         authProvider.setHideUserNotFoundExceptions(false);
         return authProvider;
     }
@@ -61,7 +87,10 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
-                        .requestMatchers("/auth/**", "/h2-console/**", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        // Async results are dispatched back after the original request was authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // Unauthenticated routes are listed once, in PublicRouteMatcher
+                        .requestMatchers(publicRouteMatcher.permitAllMatcher()).permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .requestMatchers("/tenant/**").hasRole("TENANT")
                         .anyRequest().authenticated()
@@ -84,8 +113,8 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(Arrays.asList("http://localhost:3000", "http://localhost:3001", "http://localhost:5173", "https://*.vercel.app" ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "Accept"));
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Disposition"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "Accept", "Upload-Offset"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Disposition", "Upload-Offset"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
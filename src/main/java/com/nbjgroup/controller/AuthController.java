@@ -1,31 +1,53 @@
 package com.nbjgroup.controller;
 
 import com.nbjgroup.dto.auth.AuthResponse;
+import com.nbjgroup.dto.auth.BatchValidateRequest;
 import com.nbjgroup.dto.auth.LoginRequest;
 import com.nbjgroup.dto.auth.RefreshTokenRequest;
 import com.nbjgroup.dto.auth.RegisterRequest;
+import com.nbjgroup.dto.auth.TokenValidationResult;
 import com.nbjgroup.entity.Tenant;
 import com.nbjgroup.entity.User;
 import com.nbjgroup.repository.TenantRepository;
 import com.nbjgroup.repository.UserRepository;
+import com.nbjgroup.security.AuthMetrics;
+import com.nbjgroup.security.BatchTokenValidator;
 import com.nbjgroup.security.CustomUserDetailsService;
 import com.nbjgroup.security.JwtTokenProvider;
+import com.nbjgroup.security.LoginThrottle;
+import com.nbjgroup.security.ParsedToken;
+import com.nbjgroup.security.PasswordHashingExecutor;
+import com.nbjgroup.security.RefreshTokenStore;
+import com.nbjgroup.service.RegisteredEmailFilter;
+import com.nbjgroup.service.TenantDirectory;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST controller for authentication operations.
@@ -56,28 +78,85 @@ public class AuthController {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    // Completes requests after hashing, so database and token work never runs on a hashing worker
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor applicationTaskExecutor;
+
+    @Autowired
+    private RegisteredEmailFilter registeredEmailFilter;
+
+    @Autowired
+    private TenantDirectory tenantDirectory;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    @Autowired
+    private BatchTokenValidator batchTokenValidator;
+
+    @Value("${app.jwt.validate-batch-max-size:500}")
+    private int validateBatchMaxSize;
+
     /**
-     * User login endpoint
+     * User login endpoint.
+     * Credentials are verified on the password hashing pool, not on the request thread.
+     * Emails and clients with too many recent failures are turned away before any hashing.
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
-        try {
-            logger.info("Login attempt for user: {}", loginRequest.getEmail());
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest loginRequest,
+                                                      HttpServletRequest request) {
+        logger.info("Login attempt for user: {}", loginRequest.getEmail());
+
+        // Tomcat's RemoteIpValve has already replaced a trusted proxy's address with the client's
+        String clientIp = request.getRemoteAddr();
+        if (loginThrottle.isBlocked(loginRequest.getEmail(), clientIp)) {
+            logger.warn("Login throttled for user: {} from {}", loginRequest.getEmail(), clientIp);
+            authMetrics.loginFailed("throttled");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.getRetryAfterSeconds()))
+                .body(createErrorResponse("Too many failed login attempts, please try again later", "TOO_MANY_ATTEMPTS")));
+        }
 
+        try {
             // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                    loginRequest.getEmail(),
-                    loginRequest.getPassword()
-                )
-            );
+            return passwordHashingExecutor.submit(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                        loginRequest.getEmail(),
+                        loginRequest.getPassword()
+                    )
+                ))
+                .handleAsync((authentication, error) -> error == null
+                    ? completeLogin(loginRequest)
+                    : handleLoginFailure(loginRequest, clientIp, error), applicationTaskExecutor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Login rejected - password hashing pool saturated for user: {}", loginRequest.getEmail());
+            authMetrics.loginFailed("busy");
+            return CompletableFuture.completedFuture(createBusyResponse());
+        }
+    }
 
-            // Generate tokens
-            JwtTokenProvider.JwtTokenResponse tokenResponse = tokenProvider.createTokenResponse(loginRequest.getEmail());
-            
+    /**
+     * Issue tokens once the user has been authenticated
+     */
+    private ResponseEntity<?> completeLogin(LoginRequest loginRequest) {
+        try {
             // Get user details
             User user = userDetailsService.getUserByEmail(loginRequest.getEmail());
-            
+
+            // Generate tokens
+            JwtTokenProvider.JwtTokenResponse tokenResponse =
+                tokenProvider.createTokenResponse(user, refreshTokenStore.startFamily(user.getEmail()));
+
             // Update last login
             userDetailsService.updateLastLogin(loginRequest.getEmail());
 
@@ -91,53 +170,100 @@ public class AuthController {
             );
 
             logger.info("Login successful for user: {}", loginRequest.getEmail());
+            authMetrics.loginSucceeded();
             return ResponseEntity.ok(authResponse);
 
-        } catch (BadCredentialsException e) {
+        } catch (Exception e) {
+            logger.error("Login failed - unexpected error for user: {}", loginRequest.getEmail(), e);
+            authMetrics.loginFailed("error");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Login failed due to server error", "SERVER_ERROR"));
+        }
+    }
+
+    /**
+     * Map an authentication failure to an error response
+     */
+    private ResponseEntity<?> handleLoginFailure(LoginRequest loginRequest, String clientIp, Throwable error) {
+        if (error instanceof AuthenticationException) {
+            loginThrottle.recordFailure(loginRequest.getEmail(), clientIp);
+        }
+        if (error instanceof BadCredentialsException) {
             logger.warn("Login failed - invalid credentials for user: {}", loginRequest.getEmail());
+            authMetrics.loginFailed("bad_credentials");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(createErrorResponse("Invalid email or password", "INVALID_CREDENTIALS"));
-        } catch (AuthenticationException e) {
-            logger.warn("Login failed - authentication error for user: {}", loginRequest.getEmail(), e);
+        }
+        if (error instanceof AuthenticationException) {
+            logger.warn("Login failed - authentication error for user: {}", loginRequest.getEmail(), error);
+            authMetrics.loginFailed(error instanceof DisabledException ? "disabled" : "authentication_failed");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(createErrorResponse("Authentication failed", "AUTHENTICATION_FAILED"));
-        } catch (Exception e) {
-            logger.error("Login failed - unexpected error for user: {}", loginRequest.getEmail(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(createErrorResponse("Login failed due to server error", "SERVER_ERROR"));
         }
+        logger.error("Login failed - unexpected error for user: {}", loginRequest.getEmail(), error);
+        authMetrics.loginFailed("error");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .body(createErrorResponse("Login failed due to server error", "SERVER_ERROR"));
     }
 
     /**
-     * User registration endpoint (for tenants)
+     * User registration endpoint (for tenants).
+     * The password is hashed on the password hashing pool, not on the request thread.
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
             logger.info("Registration attempt for user: {}", registerRequest.getEmail());
 
             // Validate request
             if (!registerRequest.isPasswordMatching()) {
-                return ResponseEntity.badRequest()
-                    .body(createErrorResponse("Passwords do not match", "PASSWORD_MISMATCH"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse("Passwords do not match", "PASSWORD_MISMATCH")));
             }
 
             if (!registerRequest.isTermsAccepted()) {
-                return ResponseEntity.badRequest()
-                    .body(createErrorResponse("Terms and conditions must be accepted", "TERMS_NOT_ACCEPTED"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse("Terms and conditions must be accepted", "TERMS_NOT_ACCEPTED")));
             }
 
-            // Check if user already exists
-            if (userRepository.existsByEmail(registerRequest.getEmail())) {
+            // Check if user already exists; the email filter rules out most new emails without a query
+            if (registeredEmailFilter.mightContain(registerRequest.getEmail())
+                    && userRepository.existsByEmail(registerRequest.getEmail())) {
                 logger.warn("Registration failed - email already exists: {}", registerRequest.getEmail());
-                return ResponseEntity.badRequest()
-                    .body(createErrorResponse("Email address is already registered", "EMAIL_ALREADY_EXISTS"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse("Email address is already registered", "EMAIL_ALREADY_EXISTS")));
             }
 
+            // Hash the password, then create the account
+            return passwordHashingExecutor.submit(() -> passwordEncoder.encode(registerRequest.getPassword()))
+                .handleAsync((encodedPassword, error) -> {
+                    if (error != null) {
+                        logger.error("Registration failed for user: {}", registerRequest.getEmail(), error);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(createErrorResponse("Registration failed due to server error", "SERVER_ERROR"));
+                    }
+                    return completeRegistration(registerRequest, encodedPassword);
+                }, applicationTaskExecutor);
+
+        } catch (RejectedExecutionException e) {
+            logger.warn("Registration rejected - password hashing pool saturated for user: {}", registerRequest.getEmail());
+            return CompletableFuture.completedFuture(createBusyResponse());
+        } catch (Exception e) {
+            logger.error("Registration failed for user: {}", registerRequest.getEmail(), e);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Registration failed due to server error", "SERVER_ERROR")));
+        }
+    }
+
+    /**
+     * Persist the new user and tenant profile and issue tokens
+     */
+    private ResponseEntity<?> completeRegistration(RegisterRequest registerRequest, String encodedPassword) {
+        try {
             // Create user entity
             User user = new User();
             user.setEmail(registerRequest.getEmail());
-            user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+            user.setPassword(encodedPassword);
             user.setFirstName(registerRequest.getFirstName());
             user.setLastName(registerRequest.getLastName());
             user.setPhoneNumber(registerRequest.getPhoneNumber());
@@ -145,8 +271,20 @@ public class AuthController {
             user.setIsActive(true);
             user.setEmailVerified(true); // Auto-verify for demo purposes
 
-            // Save user
-            User savedUser = userRepository.save(user);
+            // Save user; flushed here so a duplicate email surfaces at this insert
+            User savedUser;
+            try {
+                savedUser = userRepository.saveAndFlush(user);
+            } catch (DataIntegrityViolationException e) {
+                if (!userRepository.existsByEmail(registerRequest.getEmail())) {
+                    throw e;
+                }
+                // Unique constraint on email caught a duplicate the pre-check missed
+                logger.warn("Registration failed - email already exists: {}", registerRequest.getEmail());
+                return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Email address is already registered", "EMAIL_ALREADY_EXISTS"));
+            }
+            registeredEmailFilter.put(savedUser.getEmail());
 
             // Create tenant profile if property information is provided
             if (registerRequest.getPropertyAddress() != null && !registerRequest.getPropertyAddress().trim().isEmpty()) {
@@ -156,12 +294,13 @@ public class AuthController {
                 tenant.setUnitNumber(registerRequest.getUnitNumber());
                 tenant.setStatus(Tenant.TenantStatus.PENDING);
                 
-                tenantRepository.save(tenant);
+                tenantDirectory.put(tenantRepository.save(tenant));
                 logger.info("Tenant profile created for user: {}", registerRequest.getEmail());
             }
 
             // Generate tokens
-            JwtTokenProvider.JwtTokenResponse tokenResponse = tokenProvider.createTokenResponse(savedUser.getEmail());
+            JwtTokenProvider.JwtTokenResponse tokenResponse =
+                tokenProvider.createTokenResponse(savedUser, refreshTokenStore.startFamily(savedUser.getEmail()));
 
             // Create response
             AuthResponse authResponse = new AuthResponse(
@@ -183,54 +322,77 @@ public class AuthController {
     }
 
     /**
-     * Refresh token endpoint
+     * Refresh token endpoint.
+     * Rotates the refresh token: the presented token is retired and a new one is returned.
      */
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
         try {
             logger.debug("Token refresh attempt");
 
-            String refreshToken = refreshRequest.getRefreshToken();
+            ParsedToken refreshToken = tokenProvider.parseToken(refreshRequest.getRefreshToken());
             
             // Validate refresh token
-            if (!tokenProvider.validateToken(refreshToken) || !tokenProvider.isRefreshToken(refreshToken)) {
+            if (refreshToken == null || !refreshToken.isRefreshToken() || refreshToken.isExpired()) {
                 logger.warn("Token refresh failed - invalid refresh token");
+                authMetrics.refreshOutcome("invalid");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("Invalid or expired refresh token", "INVALID_REFRESH_TOKEN"));
             }
 
-            // Generate new access token
-            String newAccessToken = tokenProvider.refreshAccessToken(refreshToken);
-            String username = tokenProvider.getUsernameFromToken(refreshToken);
+            // Rotate within the token family; revoked, reused and pre-rotation tokens are rejected
+            String newTokenId = refreshTokenStore.rotate(refreshToken.getFamilyId(), refreshToken.getTokenId());
+            if (newTokenId == null) {
+                logger.warn("Token refresh failed - refresh token revoked or already used");
+                authMetrics.refreshOutcome("revoked");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(createErrorResponse("Invalid or expired refresh token", "INVALID_REFRESH_TOKEN"));
+            }
+
+            String username = refreshToken.getSubject();
 
             // Get user details
             User user = userDetailsService.getUserByEmail(username);
 
-            // Create response with new access token and same refresh token
+            // Generate new access and refresh tokens
+            String newAccessToken = tokenProvider.generateAccessToken(user);
+            String newRefreshToken = tokenProvider.generateRefreshToken(username, refreshToken.getFamilyId(), newTokenId,
+                    refreshToken.getExpiration());
+
+            // Create response with new access token and rotated refresh token
             AuthResponse authResponse = new AuthResponse();
             authResponse.setAccessToken(newAccessToken);
-            authResponse.setRefreshToken(refreshToken);
+            authResponse.setRefreshToken(newRefreshToken);
             authResponse.setExpiresIn(tokenProvider.getTokenRemainingTime(newAccessToken) / 1000);
-            authResponse.setRefreshExpiresIn(tokenProvider.getTokenRemainingTime(refreshToken) / 1000);
+            authResponse.setRefreshExpiresIn(tokenProvider.getTokenRemainingTime(newRefreshToken) / 1000);
             authResponse.setUser(new AuthResponse.UserInfo(user));
 
             logger.debug("Token refresh successful for user: {}", username);
+            authMetrics.refreshOutcome("success");
             return ResponseEntity.ok(authResponse);
 
         } catch (Exception e) {
             logger.error("Token refresh failed", e);
+            authMetrics.refreshOutcome("error");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(createErrorResponse("Token refresh failed", "REFRESH_FAILED"));
         }
     }
 
     /**
-     * Logout endpoint (client-side token invalidation)
+     * Logout endpoint.
+     * Revokes the refresh token family of the given refresh token; the access token is
+     * discarded client-side and expires on its own.
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // For JWT stateless authentication, logout is handled client-side
-        // by removing the token from storage
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest logoutRequest) {
+        if (logoutRequest != null && logoutRequest.getRefreshToken() != null) {
+            ParsedToken refreshToken = tokenProvider.parseToken(logoutRequest.getRefreshToken());
+            if (refreshToken != null && refreshToken.isRefreshToken()) {
+                refreshTokenStore.revokeFamily(refreshToken.getFamilyId());
+            }
+        }
+
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Logged out successfully");
         response.put("timestamp", java.time.LocalDateTime.now());
@@ -266,18 +428,16 @@ public class AuthController {
     @PostMapping("/validate")
     public ResponseEntity<?> validateToken(@RequestParam String token) {
         try {
-            boolean isValid = tokenProvider.validateToken(token);
+            TokenValidationResult result = batchTokenValidator.validate(token);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("valid", isValid);
+            response.put("valid", result.isValid());
             response.put("timestamp", java.time.LocalDateTime.now());
             
-            if (isValid) {
-                String username = tokenProvider.getUsernameFromToken(token);
-                long remainingTime = tokenProvider.getTokenRemainingTime(token);
-                response.put("username", username);
-                response.put("remainingTime", remainingTime);
-                response.put("shouldRefresh", tokenProvider.shouldRefreshToken(token));
+            if (result.isValid()) {
+                response.put("username", result.getUsername());
+                response.put("remainingTime", result.getRemainingTime());
+                response.put("shouldRefresh", result.getShouldRefresh());
             }
             
             return ResponseEntity.ok(response);
@@ -288,6 +448,48 @@ public class AuthController {
         }
     }
 
+    /**
+     * Batch token validation endpoint for gateways, which authenticate with a SERVICE account.
+     * Tokens are verified on a bounded pool; results are returned in request order.
+     */
+    @PostMapping("/validate/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SERVICE')")
+    public ResponseEntity<?> validateTokens(@Valid @RequestBody BatchValidateRequest batchRequest) {
+        List<String> tokens = batchRequest.getTokens();
+        if (tokens.size() > validateBatchMaxSize) {
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("At most " + validateBatchMaxSize + " tokens can be validated per request",
+                    "BATCH_TOO_LARGE"));
+        }
+
+        try {
+            List<TokenValidationResult> results = batchTokenValidator.validateAll(tokens);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("results", results);
+            response.put("count", results.size());
+            response.put("timestamp", java.time.LocalDateTime.now());
+
+            return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Batch token validation rejected - validation pool saturated");
+            return createBusyResponse();
+        } catch (Exception e) {
+            logger.error("Batch token validation failed", e);
+            return ResponseEntity.badRequest()
+                .body(createErrorResponse("Token validation failed", "VALIDATION_FAILED"));
+        }
+    }
+
+    /**
+     * Create 503 response for when the password hashing pool is saturated
+     */
+    private ResponseEntity<?> createBusyResponse() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(createErrorResponse("Authentication service is busy, please retry shortly", "SERVICE_BUSY"));
+    }
+
     /**
      * Create standardized error response
      */
@@ -1,24 +1,34 @@
 package com.nbjgroup.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nbjgroup.entity.MaintenanceRequestFile;
 import com.nbjgroup.repository.MaintenanceRequestFileRepository;
+import com.nbjgroup.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.MalformedURLException;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/files" )
@@ -27,9 +37,20 @@ public class FileController {
 
     private static final Logger logger = LoggerFactory.getLogger(FileController.class);
 
+    private static final String DOWNLOAD_CACHE_CONTROL = "private, max-age=86400";
+
     @Autowired
     private MaintenanceRequestFileRepository fileRepository;
 
+    @Autowired
+    private FileResponseWriter fileResponseWriter;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getFileById(@PathVariable Long id) {
         Optional<MaintenanceRequestFile> fileOpt = fileRepository.findById(id);
@@ -42,33 +63,113 @@ public class FileController {
         return ResponseEntity.ok(convertFileToDTO(file));
     }
 
+    /**
+     * Download an attachment; tenants may only download their own.
+     * Supports Range requests for resuming, and If-None-Match against an ETag derived from the content hash.
+     * The body is written straight to the response, so errors are written there too.
+     */
     @GetMapping("/{id}/download")
-    public ResponseEntity<Resource> downloadFile(@PathVariable Long id) {
+    public void downloadFile(@PathVariable Long id, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
         Optional<MaintenanceRequestFile> fileOpt = fileRepository.findById(id);
         if (fileOpt.isEmpty()) {
-            return ResponseEntity.notFound().build();
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
         MaintenanceRequestFile file = fileOpt.get();
+        if (!canAccessFile(file, SecurityContextHolder.getContext().getAuthentication())) {
+            writeErrorResponse(response, HttpStatus.FORBIDDEN, "Access denied", "ACCESS_DENIED");
+            return;
+        }
+
+        Path filePath = Paths.get(file.getFilePath());
+        if (!Files.isReadable(filePath)) {
+            logger.error("File not found or not readable: {}", file.getFilePath());
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        fileResponseWriter.write(request, response, filePath, file.getContentType(), etagFor(file),
+                file.getOriginalFileName(), DOWNLOAD_CACHE_CONTROL);
+    }
+
+    /**
+     * Thumbnail of an image attachment, generated off the request thread on first use; same access as downloads.
+     * size is small (160px), medium (480px) or large (1024px) on the longest edge.
+     */
+    @GetMapping("/{id}/thumbnail")
+    public CompletableFuture<ResponseEntity<?>> getThumbnail(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "small") String size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        Optional<MaintenanceRequestFile> fileOpt = fileRepository.findById(id);
+        if (fileOpt.isEmpty() || !thumbnailService.supports(fileOpt.get())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Thumbnail not found", "THUMBNAIL_NOT_FOUND")));
+        }
+
+        ThumbnailService.ThumbnailSize thumbnailSize;
         try {
-            Path filePath = Paths.get(file.getFilePath());
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists() || resource.isReadable()) {
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getOriginalFileName() + "\"")
-                        .contentType(MediaType.parseMediaType(String.valueOf(file.getFileType()))) // Use getFileType() for content type
-                        .body(resource);
-            } else {
-                logger.error("File not found or not readable: {}", file.getFilePath());
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-            }
-        } catch (MalformedURLException e) {
-            logger.error("Error creating URL for file path: {}", file.getFilePath(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            thumbnailSize = ThumbnailService.ThumbnailSize.fromString(size);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(createErrorResponse("Unknown thumbnail size: " + size, "INVALID_SIZE")));
+        }
+
+        MaintenanceRequestFile file = fileOpt.get();
+        if (!canAccessFile(file, SecurityContextHolder.getContext().getAuthentication())) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse("Access denied", "ACCESS_DENIED")));
+        }
+
+        String etag = thumbnailService.etagFor(file, thumbnailSize);
+        if (FileResponseWriter.matchesIfNoneMatch(ifNoneMatch, etag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+        }
+
+        try {
+            return thumbnailService.getThumbnail(file, thumbnailSize)
+                    .<ResponseEntity<?>>thenApply(path -> ResponseEntity.ok()
+                            .eTag(etag)
+                            .cacheControl(CacheControl.maxAge(30, TimeUnit.DAYS).cachePrivate())
+                            .contentType(MediaType.IMAGE_JPEG)
+                            .body(new FileSystemResource(path)))
+                    .exceptionally(e -> {
+                        logger.error("Error generating thumbnail for file ID: {}", id, e);
+                        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                                .body(createErrorResponse("Thumbnail could not be generated", "THUMBNAIL_ERROR"));
+                    });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Thumbnail rejected - thumbnail pool saturated for file ID: {}", id);
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(createErrorResponse("Thumbnail service is busy, please retry shortly", "SERVICE_BUSY")));
         }
     }
 
+    /**
+     * Strong ETag from the content hash; files stored without one get a weak tag from size and modification time
+     */
+    private String etagFor(MaintenanceRequestFile file) throws IOException {
+        if (file.getContentHash() != null) {
+            return "\"" + file.getContentHash() + "\"";
+        }
+        Path filePath = Paths.get(file.getFilePath());
+        return "W/\"" + Files.size(filePath) + "-" + Files.getLastModifiedTime(filePath).toMillis() + "\"";
+    }
+
+    /**
+     * Admins can read every attachment, tenants only those on their own maintenance requests
+     */
+    private boolean canAccessFile(MaintenanceRequestFile file, Authentication auth) {
+        if (auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return true;
+        }
+        return file.getMaintenanceRequest().getTenant().getUser().getEmail().equals(auth.getName());
+    }
+
     private Map<String, Object> convertFileToDTO(MaintenanceRequestFile file) {
         Map<String, Object> dto = new HashMap<>();
         dto.put("id", file.getId());
@@ -82,6 +183,13 @@ public class FileController {
         return dto;
     }
 
+    private void writeErrorResponse(HttpServletResponse response, HttpStatus status, String message,
+                                    String errorCode) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), createErrorResponse(message, errorCode));
+    }
+
     private Map<String, Object> createErrorResponse(String message, String errorCode) {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("error", true);
@@ -0,0 +1,183 @@
+package com.nbjgroup.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes stored files to HTTP responses with conditional and partial request support.
+ * Honours If-None-Match (304) and a single byte Range (206, or 416 when unsatisfiable), guarded by If-Range.
+ * Large bodies are handed to Tomcat's sendfile so the bytes go from the page cache to the socket
+ * without passing through the JVM; otherwise, and on containers without sendfile, the body is
+ * copied with FileChannel.transferTo.
+ */
+@Component
+public class FileResponseWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileResponseWriter.class);
+
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    record ByteRange(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    /**
+     * Send a file. etag is a quoted entity tag, or null to disable conditional requests.
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, Path path,
+                      String contentType, String etag, String filename, String cacheControl) throws IOException {
+        long fileLength = Files.size(path);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            if (matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        ByteRange range = new ByteRange(0, fileLength - 1);
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag)) {
+            ByteRange requested = parseRange(rangeHeader, fileLength);
+            if (requested == UNSATISFIABLE) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (requested != null) {
+                range = requested;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + range.start() + "-" + range.end() + "/" + fileLength);
+            }
+        }
+
+        response.setContentType(contentType != null ? contentType : "application/octet-stream");
+        if (filename != null) {
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString());
+        }
+        response.setContentLengthLong(Math.max(range.length(), 0));
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || range.length() <= 0) {
+            return;
+        }
+
+        if (range.length() >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat transfers the file itself once the servlet returns; nothing may be written here
+            request.setAttribute(SENDFILE_FILENAME, path.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, range.start());
+            request.setAttribute(SENDFILE_END, range.end() + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = range.start();
+            long remaining = range.length();
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        } catch (IOException e) {
+            // Usually the client went away mid-download, e.g. a paused resume
+            logger.debug("Download of {} interrupted: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Parse a single "bytes=" range; null means serve the whole file (absent, malformed or multiple ranges)
+     */
+    static ByteRange parseRange(String header, long fileLength) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || fileLength == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(fileLength - suffix, 0), fileLength - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? fileLength - 1 : Math.min(Long.parseLong(last), fileLength - 1);
+            if (start >= fileLength || start > end) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, end);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Weak comparison of If-None-Match against the current tag, as RFC 9110 requires for GET
+     */
+    static boolean matchesIfNoneMatch(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        String current = stripWeak(etag);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A range is only honoured if If-Range is absent or strongly matches the current tag
+     */
+    static boolean ifRangeMatches(String header, String etag) {
+        if (header == null) {
+            return true;
+        }
+        return etag != null && !etag.startsWith("W/") && header.trim().equals(etag);
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -1,6 +1,14 @@
 package com.nbjgroup.controller;
 
+import com.nbjgroup.dto.CursorPage;
+import com.nbjgroup.dto.ErrorResponse;
+import com.nbjgroup.dto.PageCursor;
+import com.nbjgroup.dto.maintenance.MaintenanceCursorPageResponse;
+import com.nbjgroup.dto.maintenance.MaintenancePageResponse;
 import com.nbjgroup.dto.maintenance.MaintenanceRequestDTO;
+import com.nbjgroup.dto.maintenance.MaintenanceRequestResponse;
+import com.nbjgroup.dto.maintenance.UploadSessionRequest;
+import com.nbjgroup.dto.maintenance.UploadSessionResponse;
 import com.nbjgroup.entity.MaintenanceRequest;
 import com.nbjgroup.entity.MaintenanceRequestFile;
 import com.nbjgroup.entity.Tenant;
@@ -9,16 +17,21 @@ import com.nbjgroup.repository.MaintenanceRequestFileRepository;
 import com.nbjgroup.repository.MaintenanceRequestRepository;
 import com.nbjgroup.repository.TenantRepository;
 import com.nbjgroup.repository.UserRepository;
+import com.nbjgroup.service.AttachmentStorageService;
+import com.nbjgroup.service.ChunkedUploadService;
+import com.nbjgroup.service.MaintenanceSearchService;
 import com.nbjgroup.service.MaintenanceService;
+import com.nbjgroup.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,16 +39,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/maintenance" )
@@ -44,6 +50,12 @@ public class MaintenanceController {
 
     private static final Logger logger = LoggerFactory.getLogger(MaintenanceController.class);
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+
+    private static final int MAX_FILENAME_LENGTH = 255;
+
     @Autowired
     private MaintenanceRequestRepository maintenanceRepository;
 
@@ -59,8 +71,17 @@ public class MaintenanceController {
     @Autowired
     private MaintenanceService maintenanceService;
 
-    @Value("${app.upload.dir:${user.home}/nbj-uploads}")
-    private String uploadDir;
+    @Autowired
+    private MaintenanceSearchService maintenanceSearchService;
+
+    @Autowired
+    private AttachmentStorageService storageService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -70,9 +91,20 @@ public class MaintenanceController {
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) String priority) {
+            @RequestParam(required = false) String priority,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
         try {
+            // Cursor mode: newest first, no offset scan and no count unless asked for
+            if (cursor != null) {
+                MaintenanceRequest.RequestStatus statusEnum = status != null
+                        ? MaintenanceRequest.RequestStatus.valueOf(status.toUpperCase()) : null;
+                MaintenanceRequest.Priority priorityEnum = priority != null
+                        ? MaintenanceRequest.Priority.valueOf(priority.toUpperCase()) : null;
+                return createCursorPageResponse(statusEnum, priorityEnum, null, cursor, size, includeTotal);
+            }
+
             Sort sort = sortDir.equalsIgnoreCase("desc") ?
                     Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
@@ -93,16 +125,12 @@ public class MaintenanceController {
                 requests = maintenanceRepository.findAll(pageable);
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("requests", requests.getContent().stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList()));
-            response.put("currentPage", requests.getNumber());
-            response.put("totalItems", requests.getTotalElements());
-            response.put("totalPages", requests.getTotalPages());
-            response.put("pageSize", requests.getSize());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MaintenancePageResponse(
+                    requests.getContent().stream().map(this::convertToDTO).toList(),
+                    requests.getNumber(),
+                    requests.getTotalElements(),
+                    requests.getTotalPages(),
+                    requests.getSize()));
 
         } catch (Exception e) {
             logger.error("Error fetching maintenance requests", e);
@@ -115,7 +143,9 @@ public class MaintenanceController {
     @PreAuthorize("hasRole('TENANT')")
     public ResponseEntity<?> getMyMaintenanceRequests(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
 
         try {
             Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -133,18 +163,19 @@ public class MaintenanceController {
                         .body(createErrorResponse("Tenant profile not found", "TENANT_NOT_FOUND"));
             }
 
+            if (cursor != null) {
+                return createCursorPageResponse(null, null, tenantOpt.get(), cursor, size, includeTotal);
+            }
+
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<MaintenanceRequest> requests = maintenanceRepository.findByTenant(tenantOpt.get(), pageable);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("requests", requests.getContent().stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList()));
-            response.put("currentPage", requests.getNumber());
-            response.put("totalItems", requests.getTotalElements());
-            response.put("totalPages", requests.getTotalPages());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MaintenancePageResponse(
+                    requests.getContent().stream().map(this::convertToDTO).toList(),
+                    requests.getNumber(),
+                    requests.getTotalElements(),
+                    requests.getTotalPages(),
+                    null));
 
         } catch (Exception e) {
             logger.error("Error fetching tenant maintenance requests", e);
@@ -153,6 +184,35 @@ public class MaintenanceController {
         }
     }
 
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> searchMaintenanceRequests(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        try {
+            if (query.isBlank()) {
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Search query is required", "INVALID_QUERY"));
+            }
+
+            Page<MaintenanceRequest> requests = maintenanceSearchService.search(query.trim(), PageRequest.of(page, size));
+
+            return ResponseEntity.ok(new MaintenancePageResponse(
+                    requests.getContent().stream().map(this::convertToDTO).toList(),
+                    requests.getNumber(),
+                    requests.getTotalElements(),
+                    requests.getTotalPages(),
+                    requests.getSize()));
+
+        } catch (Exception e) {
+            logger.error("Error searching maintenance requests", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error searching maintenance requests", "SEARCH_ERROR"));
+        }
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getMaintenanceRequest(@PathVariable Long id) {
@@ -246,12 +306,6 @@ public class MaintenanceController {
 
             logger.info("Maintenance request updated - ID: {}, Status: {}", id, request.getStatus());
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Maintenance request updated successfully");
-            response.put("request", convertToDTO(updatedRequest));
-            response.put("timestamp", LocalDateTime.now());
-
             return ResponseEntity.ok(convertToDTO(updatedRequest));
 
         } catch (Exception e) {
@@ -319,6 +373,268 @@ public class MaintenanceController {
         }
     }
 
+    /**
+     * Stream one attachment from the raw request body straight into the blob store.
+     * With the chunked upload endpoints this is the only way attachments are added: multipart
+     * parsing spools every part before it can be read, so it is not offered. The original file
+     * name comes from the X-File-Name header or the filename parameter. A client sending
+     * X-Content-SHA256 of content it can already access in another attachment gets it attached
+     * without the body being read, e.g. with Expect: 100-continue. Otherwise the body is always
+     * read and must match a declared hash.
+     */
+    @PostMapping("/{id}/attachments")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> uploadAttachment(
+            @PathVariable Long id,
+            @RequestParam(required = false) String filename,
+            @RequestHeader(value = "X-File-Name", required = false) String fileNameHeader,
+            @RequestHeader(value = "X-Content-SHA256", required = false) String contentHash,
+            HttpServletRequest httpRequest) {
+
+        try {
+            Optional<MaintenanceRequest> requestOpt = maintenanceRepository.findById(id);
+            if (requestOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            MaintenanceRequest request = requestOpt.get();
+
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (!canAccessRequest(request, auth)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(createErrorResponse("Access denied", "ACCESS_DENIED"));
+            }
+
+            String originalFilename = sanitizeFilename(fileNameHeader != null ? fileNameHeader : filename);
+
+            String declaredHash = null;
+            if (contentHash != null) {
+                declaredHash = AttachmentStorageService.normalizeContentHash(contentHash);
+                if (declaredHash == null) {
+                    return ResponseEntity.badRequest()
+                            .body(createErrorResponse("X-Content-SHA256 must be a hex SHA-256 digest", "INVALID_CONTENT_HASH"));
+                }
+            }
+
+            // Only content the caller can already read may be attached by hash; anything else proves nothing
+            Optional<AttachmentStorageService.StoredFile> existing = declaredHash != null && canReuseContent(declaredHash, auth)
+                    ? storageService.attachExisting(declaredHash) : Optional.empty();
+
+            AttachmentStorageService.StoredFile storedFile;
+            if (existing.isPresent()) {
+                storedFile = existing.get();
+            } else {
+                // Reject early when the client declares an oversized body; chunked bodies are cut off mid-stream
+                if (httpRequest.getContentLengthLong() > storageService.getMaxFileSize()) {
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                            .body(createErrorResponse("File exceeds the maximum upload size", "FILE_TOO_LARGE"));
+                }
+                storedFile = storageService.store(httpRequest.getInputStream(), originalFilename, httpRequest.getContentType());
+                if (declaredHash != null && !declaredHash.equals(storedFile.contentHash())) {
+                    storageService.release(storedFile.contentHash(), storedFile.path().toString());
+                    return ResponseEntity.badRequest()
+                            .body(createErrorResponse("Uploaded content does not match X-Content-SHA256", "CONTENT_HASH_MISMATCH"));
+                }
+            }
+
+            if (storedFile.size() == 0) {
+                storageService.release(storedFile.contentHash(), storedFile.path().toString());
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Uploaded file is empty", "EMPTY_FILE"));
+            }
+
+            MaintenanceRequestFile savedFile = saveAttachment(storedFile, originalFilename, request);
+
+            logger.info("Attachment uploaded - Request ID: {}, File ID: {}, Size: {}, Type: {}, Deduplicated: {}",
+                    id, savedFile.getId(), storedFile.size(), storedFile.contentType(), storedFile.deduplicated());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(MaintenanceRequestResponse.FileInfo.from(savedFile));
+
+        } catch (AttachmentStorageService.FileTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(createErrorResponse("File exceeds the maximum upload size", "FILE_TOO_LARGE"));
+        } catch (Exception e) {
+            logger.error("Error uploading attachment for maintenance request ID: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error uploading attachment", "UPLOAD_ERROR"));
+        }
+    }
+
+    /**
+     * Open a resumable upload session for a file of up to app.file.chunked-upload.max-size.
+     * Chunks are then sent with PATCH at the offset the server reports, and the file is attached on commit.
+     */
+    @PostMapping("/{id}/uploads")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> startChunkedUpload(@PathVariable Long id,
+                                                @Valid @RequestBody UploadSessionRequest uploadRequest) {
+        try {
+            Optional<MaintenanceRequest> requestOpt = maintenanceRepository.findById(id);
+            if (requestOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (!canAccessRequest(requestOpt.get(), auth)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(createErrorResponse("Access denied", "ACCESS_DENIED"));
+            }
+
+            ChunkedUploadService.UploadSession session = chunkedUploadService.start(id, auth.getName(),
+                    sanitizeFilename(uploadRequest.fileName()), uploadRequest.contentType(), uploadRequest.size());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(createUploadSessionResponse(session));
+
+        } catch (AttachmentStorageService.FileTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(createErrorResponse(e.getMessage(), "FILE_TOO_LARGE"));
+        } catch (ChunkedUploadService.TooManyUploadsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(createErrorResponse(e.getMessage(), "TOO_MANY_UPLOADS"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(createErrorResponse(e.getMessage(), "SERVICE_BUSY"));
+        } catch (Exception e) {
+            logger.error("Error starting upload for maintenance request ID: {}", id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error starting upload", "UPLOAD_ERROR"));
+        }
+    }
+
+    /**
+     * Current offset of an upload session, for resuming after a broken connection
+     */
+    @GetMapping("/{id}/uploads/{uploadId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getChunkedUpload(@PathVariable Long id, @PathVariable String uploadId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        return chunkedUploadService.find(uploadId, id, username)
+                .<ResponseEntity<?>>map(session -> ResponseEntity.ok()
+                        .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                        .body(createUploadSessionResponse(session)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(createErrorResponse("Upload session not found", "UPLOAD_NOT_FOUND")));
+    }
+
+    /**
+     * Append one chunk from the raw request body, starting at the Upload-Offset header.
+     * A chunk at the wrong offset is rejected with 409 and the offset to resume from.
+     */
+    @PatchMapping("/{id}/uploads/{uploadId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> appendChunk(@PathVariable Long id, @PathVariable String uploadId,
+                                         @RequestHeader(UPLOAD_OFFSET_HEADER) long offset,
+                                         HttpServletRequest httpRequest) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Optional<ChunkedUploadService.UploadSession> sessionOpt = chunkedUploadService.find(uploadId, id, username);
+        if (sessionOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Upload session not found", "UPLOAD_NOT_FOUND"));
+        }
+
+        ChunkedUploadService.UploadSession session = sessionOpt.get();
+        try {
+            if (httpRequest.getContentLengthLong() > storageService.getMaxFileSize()) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(createErrorResponse("Chunk exceeds the maximum chunk size", "CHUNK_TOO_LARGE"));
+            }
+
+            long newOffset = chunkedUploadService.append(session, offset, httpRequest.getInputStream());
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET_HEADER, String.valueOf(newOffset))
+                    .body(createUploadSessionResponse(session));
+
+        } catch (ChunkedUploadService.OffsetMismatchException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET_HEADER, String.valueOf(e.getExpectedOffset()))
+                    .body(createErrorResponse(e.getMessage(), "OFFSET_MISMATCH"));
+        } catch (ChunkedUploadService.UploadBusyException e) {
+            return uploadBusyResponse(e);
+        } catch (AttachmentStorageService.FileTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                    .body(createErrorResponse(e.getMessage(), "CHUNK_TOO_LARGE"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Upload session not found", "UPLOAD_NOT_FOUND"));
+        } catch (Exception e) {
+            // Usually a dropped connection; the bytes that arrived are kept for resuming
+            logger.warn("Chunk upload interrupted for session {} at offset {}", uploadId, session.getOffset(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                    .body(createErrorResponse("Error receiving chunk", "UPLOAD_ERROR"));
+        }
+    }
+
+    /**
+     * Attach a fully received upload to the maintenance request
+     */
+    @PostMapping("/{id}/uploads/{uploadId}/commit")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> commitChunkedUpload(@PathVariable Long id, @PathVariable String uploadId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Optional<ChunkedUploadService.UploadSession> sessionOpt = chunkedUploadService.find(uploadId, id, username);
+        if (sessionOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Upload session not found", "UPLOAD_NOT_FOUND"));
+        }
+
+        ChunkedUploadService.UploadSession session = sessionOpt.get();
+        try {
+            Optional<MaintenanceRequest> requestOpt = maintenanceRepository.findById(id);
+            if (requestOpt.isEmpty()) {
+                chunkedUploadService.abort(session);
+                return ResponseEntity.notFound().build();
+            }
+
+            AttachmentStorageService.StoredFile storedFile = chunkedUploadService.commit(session);
+            MaintenanceRequestFile savedFile = saveAttachment(storedFile, session.getFileName(), requestOpt.get());
+
+            logger.info("Chunked upload committed - Request ID: {}, File ID: {}, Size: {}, Type: {}, Deduplicated: {}",
+                    id, savedFile.getId(), storedFile.size(), storedFile.contentType(), storedFile.deduplicated());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(MaintenanceRequestResponse.FileInfo.from(savedFile));
+
+        } catch (ChunkedUploadService.OffsetMismatchException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET_HEADER, String.valueOf(e.getExpectedOffset()))
+                    .body(createErrorResponse("Upload is incomplete", "UPLOAD_INCOMPLETE"));
+        } catch (ChunkedUploadService.UploadBusyException e) {
+            return uploadBusyResponse(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Upload session not found", "UPLOAD_NOT_FOUND"));
+        } catch (Exception e) {
+            logger.error("Error committing upload {} for maintenance request ID: {}", uploadId, id, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error committing upload", "UPLOAD_ERROR"));
+        }
+    }
+
+    /**
+     * Abandon an upload session
+     */
+    @DeleteMapping("/{id}/uploads/{uploadId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> abortChunkedUpload(@PathVariable Long id, @PathVariable String uploadId) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        Optional<ChunkedUploadService.UploadSession> sessionOpt = chunkedUploadService.find(uploadId, id, username);
+        if (sessionOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Upload session not found", "UPLOAD_NOT_FOUND"));
+        }
+
+        try {
+            chunkedUploadService.abort(sessionOpt.get());
+        } catch (ChunkedUploadService.UploadBusyException e) {
+            return uploadBusyResponse(e);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Upload session not found", "UPLOAD_NOT_FOUND"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteMaintenanceRequest(@PathVariable Long id) {
@@ -330,20 +646,13 @@ public class MaintenanceController {
             }
 
             MaintenanceRequest request = requestOpt.get();
-
-            for (MaintenanceRequestFile file : request.getAttachments()) {
-                try {
-                    Path filePath = Paths.get(file.getFilePath());
-                    if (Files.exists(filePath)) {
-                        Files.delete(filePath);
-                    }
-                } catch (IOException e) {
-                    logger.warn("Could not delete file: {}", file.getFilePath(), e);
-                }
-            }
+            List<MaintenanceRequestFile> attachments = new ArrayList<>(request.getAttachments());
 
             maintenanceRepository.delete(request);
 
+            // Blobs shared with other requests stay until their last attachment is gone
+            storageService.releaseAll(attachments);
+
             logger.info("Maintenance request deleted - ID: {}", id);
 
             Map<String, Object> response = new HashMap<>();
@@ -360,36 +669,85 @@ public class MaintenanceController {
         }
     }
 
-    private List<MaintenanceRequestFile> handleFileUploads(MultipartFile[] files, MaintenanceRequest request)
-            throws IOException {
-
-        List<MaintenanceRequestFile> uploadedFiles = new ArrayList<>();
-        Path uploadPath = Paths.get(uploadDir, "maintenance");
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    /**
+     * Save the attachment row for a stored file, generating thumbnails in the background
+     */
+    private MaintenanceRequestFile saveAttachment(AttachmentStorageService.StoredFile storedFile,
+                                                  String originalFilename, MaintenanceRequest request) {
+        MaintenanceRequestFile savedFile;
+        try {
+            savedFile = fileRepository.save(createFileRecord(storedFile, originalFilename, request));
+        } catch (RuntimeException e) {
+            // Give back the blob reference taken for this attachment
+            storageService.release(storedFile.contentHash(), storedFile.path().toString());
+            throw e;
         }
 
-        for (MultipartFile file : files) {
-            if (!file.isEmpty()) {
-                String originalFilename = file.getOriginalFilename();
-                String uniqueFilename = generateUniqueFilename(originalFilename);
-                Path filePath = uploadPath.resolve(uniqueFilename);
+        thumbnailService.generateAfterUpload(savedFile);
+        return savedFile;
+    }
 
-                Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * A chunk is still being received for the session, e.g. a stalled PATCH the client gave up on
+     */
+    private ResponseEntity<?> uploadBusyResponse(ChunkedUploadService.UploadBusyException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(UPLOAD_OFFSET_HEADER, String.valueOf(e.getOffset()))
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(createErrorResponse(e.getMessage(), "UPLOAD_BUSY"));
+    }
 
-                MaintenanceRequestFile fileRecord = new MaintenanceRequestFile();
-                fileRecord.setOriginalFileName(originalFilename);
-                fileRecord.setFileName(uniqueFilename); // Use 'fileName' for the stored name
-                fileRecord.setFilePath(filePath.toString());
-                fileRecord.setFileSize(file.getSize());
-                fileRecord.setAttachmentType(determineFileType(file.getContentType()));
-                fileRecord.setMaintenanceRequest(request);
-                fileRecord.setUploadedAt(LocalDateTime.now());
+    private UploadSessionResponse createUploadSessionResponse(ChunkedUploadService.UploadSession session) {
+        return UploadSessionResponse.from(session, storageService.getMaxFileSize(), chunkedUploadService.getSessionTtlMs());
+    }
 
-                uploadedFiles.add(fileRecord);
-            }
+    private MaintenanceRequestFile createFileRecord(AttachmentStorageService.StoredFile storedFile,
+                                                    String originalFilename, MaintenanceRequest request) {
+        MaintenanceRequestFile fileRecord = new MaintenanceRequestFile();
+        fileRecord.setOriginalFileName(originalFilename);
+        fileRecord.setFileName(storedFile.fileName()); // Use 'fileName' for the stored name
+        fileRecord.setFilePath(storedFile.path().toString());
+        fileRecord.setFileSize(storedFile.size());
+        fileRecord.setContentType(storedFile.contentType());
+        fileRecord.setContentHash(storedFile.contentHash());
+        fileRecord.setAttachmentType(determineFileType(storedFile.contentType()));
+        fileRecord.setMaintenanceRequest(request);
+        fileRecord.setUploadedAt(LocalDateTime.now());
+        return fileRecord;
+    }
+
+    /**
+     * Build a keyset-paginated listing response.
+     * An empty cursor requests the first page; nextCursor is null on the last page.
+     */
+    private ResponseEntity<?> createCursorPageResponse(MaintenanceRequest.RequestStatus status,
+                                                       MaintenanceRequest.Priority priority,
+                                                       Tenant tenant,
+                                                       String cursor,
+                                                       int size,
+                                                       boolean includeTotal) {
+        PageCursor pageCursor;
+        try {
+            pageCursor = cursor.isEmpty() ? null : PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Invalid page cursor", "INVALID_CURSOR"));
         }
-        return fileRepository.saveAll(uploadedFiles);
+
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        CursorPage<MaintenanceRequest> requests = maintenanceService.findPage(
+                status, priority, tenant != null ? tenant.getId() : null, pageCursor, pageSize);
+
+        MaintenanceService.ListingTotal total = includeTotal
+                ? maintenanceService.countRequests(status, priority, tenant) : null;
+
+        return ResponseEntity.ok(new MaintenanceCursorPageResponse(
+                requests.items().stream().map(this::convertToDTO).toList(),
+                pageSize,
+                requests.nextCursor(),
+                requests.hasMore(),
+                total != null ? total.count() : null,
+                total != null ? total.approximate() : null));
     }
 
     private boolean canAccessRequest(MaintenanceRequest request, Authentication auth) {
@@ -400,54 +758,36 @@ public class MaintenanceController {
         return request.getTenant().getUser().getEmail().equals(username);
     }
 
-    private Map<String, Object> convertToDTO(MaintenanceRequest request) {
-        Map<String, Object> dto = new HashMap<>();
-        dto.put("id", request.getId());
-        dto.put("title", request.getTitle());
-        dto.put("description", request.getDescription());
-        dto.put("category", request.getCategory());
-        dto.put("priority", request.getPriority().toString());
-        dto.put("status", request.getStatus().toString());
-        dto.put("assignedTo", request.getAssignedTo());
-        dto.put("adminNotes", request.getAdminNotes());
-        dto.put("tenantFeedback", request.getTenantFeedback());
-        dto.put("rating", request.getTenantRating());
-        dto.put("createdAt", request.getCreatedAt());
-        dto.put("updatedAt", request.getUpdatedAt());
-        dto.put("scheduledDate", request.getScheduledDate());
-        dto.put("completedAt", request.getCompletedAt());
-
-        Map<String, Object> tenantInfo = new HashMap<>();
-        tenantInfo.put("email", request.getTenant().getUser().getEmail());
-        tenantInfo.put("phone", request.getTenant().getEmergencyContactPhone());
-        tenantInfo.put("propertyAddress", request.getTenant().getPropertyAddress());
-        dto.put("tenant", tenantInfo);
-
-        List<Map<String, Object>> filesInfo = request.getAttachments().stream()
-                .map(file -> {
-                    Map<String, Object> fileMap = new HashMap<>();
-                    fileMap.put("id", file.getId());
-                    fileMap.put("originalFilename", file.getOriginalFileName());
-                    fileMap.put("fileType", file.getAttachmentType());
-                    fileMap.put("fileSize", file.getFileSize());
-                    fileMap.put("uploadedAt", file.getUploadedAt());
-                    fileMap.put("downloadUrl", file.getDownloadUrl());
-                    fileMap.put("thumbnailUrl", file.getThumbnailUrl());
-                    fileMap.put("viewUrl", "/api/files/" + file.getId());
-                    return fileMap;
-                })
-                .collect(Collectors.toList());
-        dto.put("files", filesInfo);
-
-        return dto;
+    /**
+     * Whether the caller may attach content by hash alone: admins if any attachment holds it,
+     * everyone else only if one of their own attachments does
+     */
+    private boolean canReuseContent(String contentHash, Authentication auth) {
+        if (auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return fileRepository.existsByContentHash(contentHash);
+        }
+        return fileRepository.existsByContentHashAndOwnerEmail(contentHash, auth.getName());
     }
 
-    private String generateUniqueFilename(String originalFilename) {
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf('.'));
+    private MaintenanceRequestResponse convertToDTO(MaintenanceRequest request) {
+        return MaintenanceRequestResponse.from(request);
+    }
+
+    /**
+     * Strip any client-side directory from an uploaded file name and shorten it to fit the
+     * original_file_name column, keeping a short extension
+     */
+    private String sanitizeFilename(String filename) {
+        if (filename == null || filename.isBlank()) {
+            return "attachment";
+        }
+        String name = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1).trim();
+        if (name.length() > MAX_FILENAME_LENGTH) {
+            int dot = name.lastIndexOf('.');
+            String extension = dot > 0 && name.length() - dot <= 16 ? name.substring(dot) : "";
+            name = name.substring(0, MAX_FILENAME_LENGTH - extension.length()) + extension;
         }
-        return UUID.randomUUID().toString() + extension;
+        return name.isEmpty() ? "attachment" : name;
     }
 
     private MaintenanceRequestFile.AttachmentType determineFileType(String contentType) {
@@ -457,6 +797,10 @@ public class MaintenanceController {
 
         if (contentType.startsWith("image/")) {
             return MaintenanceRequestFile.AttachmentType.IMAGE;
+        } else if (contentType.startsWith("video/")) {
+            return MaintenanceRequestFile.AttachmentType.VIDEO;
+        } else if (contentType.startsWith("audio/")) {
+            return MaintenanceRequestFile.AttachmentType.AUDIO;
         } else if (contentType.startsWith("application/") || contentType.startsWith("text/")) {
             return MaintenanceRequestFile.AttachmentType.DOCUMENT;
         } else {
@@ -464,12 +808,7 @@ public class MaintenanceController {
         }
     }
 
-    private Map<String, Object> createErrorResponse(String message, String errorCode) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", true);
-        errorResponse.put("message", message);
-        errorResponse.put("errorCode", errorCode);
-        errorResponse.put("timestamp", LocalDateTime.now());
-        return errorResponse;
+    private ErrorResponse createErrorResponse(String message, String errorCode) {
+        return ErrorResponse.of(message, errorCode);
     }
 }
@@ -0,0 +1,67 @@
+package com.nbjgroup.controller;
+
+import com.nbjgroup.dto.ErrorResponse;
+import com.nbjgroup.service.SearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Admin search across tenants, users, payments and lease agreements
+ */
+@RestController
+@RequestMapping("/search")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class SearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private SearchService searchService;
+
+    /**
+     * GET /api/search?q=smith&type=tenants
+     * type is one of tenants, users, payments or leases
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> search(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "tenants") String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Search query is required", "INVALID_QUERY"));
+        }
+
+        SearchService.SearchType searchType;
+        try {
+            searchType = SearchService.SearchType.fromString(type);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Unknown search type: " + type, "INVALID_SEARCH_TYPE"));
+        }
+
+        try {
+            PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+            return ResponseEntity.ok(searchService.search(searchType, query, pageable));
+        } catch (Exception e) {
+            logger.error("Error searching {} for: {}", type, query, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("Error performing search", "SEARCH_ERROR"));
+        }
+    }
+
+    private ErrorResponse createErrorResponse(String message, String errorCode) {
+        return ErrorResponse.of(message, errorCode);
+    }
+}
@@ -1,11 +1,20 @@
 package com.nbjgroup.controller;
 
 import com.nbjgroup.dto.TenantResponseDTO;
+import com.nbjgroup.dto.TenantSummary;
 import com.nbjgroup.dto.TenantUpdateDTO;
+import com.nbjgroup.entity.MaintenanceRequestFile;
 import com.nbjgroup.entity.Tenant;
 import com.nbjgroup.entity.User;
+import com.nbjgroup.repository.MaintenanceRequestFileRepository;
 import com.nbjgroup.repository.TenantRepository;
 import com.nbjgroup.repository.UserRepository;
+import com.nbjgroup.security.PrincipalCache;
+import com.nbjgroup.security.UserRevocationList;
+import com.nbjgroup.service.AttachmentStorageService;
+import com.nbjgroup.service.DatabaseSupport;
+import com.nbjgroup.service.RegisteredEmailFilter;
+import com.nbjgroup.service.TenantDirectory;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -27,14 +36,31 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*", maxAge = 3600) // For development, be more specific in production
 public class TenantController {
 
+    private static final int MAX_DIRECTORY_RESULTS = 50;
+
     private final TenantRepository tenantRepository;
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final UserRevocationList revocationList;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final TenantDirectory tenantDirectory;
+    private final MaintenanceRequestFileRepository fileRepository;
+    private final AttachmentStorageService storageService;
 
     // Use constructor-based injection - it's a best practice
     @Autowired
-    public TenantController(TenantRepository tenantRepository, UserRepository userRepository) {
+    public TenantController(TenantRepository tenantRepository, UserRepository userRepository,
+                            PrincipalCache principalCache, UserRevocationList revocationList,
+                            RegisteredEmailFilter registeredEmailFilter, TenantDirectory tenantDirectory,
+                            MaintenanceRequestFileRepository fileRepository, AttachmentStorageService storageService) {
         this.tenantRepository = tenantRepository;
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.revocationList = revocationList;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.tenantDirectory = tenantDirectory;
+        this.fileRepository = fileRepository;
+        this.storageService = storageService;
     }
 
     /**
@@ -75,6 +101,34 @@ public class TenantController {
         }
     }
 
+    /**
+     * GET /api/tenants/directory?q=smi
+     * Type-ahead over tenant name, email, address and unit, served from memory. (Admin only)
+     */
+    @GetMapping("/directory")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> searchDirectory(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_DIRECTORY_RESULTS);
+        try {
+            List<TenantSummary> tenants;
+            if (tenantDirectory.isReady()) {
+                tenants = tenantDirectory.search(query, cappedLimit);
+            } else {
+                tenants = tenantRepository.searchTenants(DatabaseSupport.escapeLike(query.trim()), PageRequest.of(0, cappedLimit))
+                        .map(TenantSummary::from)
+                        .getContent();
+            }
+            return ResponseEntity.ok(Map.of("tenants", tenants));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", true, "message", "An error occurred while searching tenants."));
+        }
+    }
+
     /**
      * PUT /api/tenants/{id}
      * Updates a tenant's information. (Admin only)
@@ -87,6 +141,7 @@ public class TenantController {
                     .orElseThrow(() -> new RuntimeException("Tenant not found with id: " + id));
 
             User user = tenant.getUser();
+            String previousEmail = user.getEmail();
 
             if (tenantUpdateDTO.getFirstName() != null) {
                 user.setFirstName(tenantUpdateDTO.getFirstName());
@@ -111,6 +166,17 @@ public class TenantController {
 
             userRepository.save(user);
             Tenant updatedTenant = tenantRepository.save(tenant);
+            tenantDirectory.put(updatedTenant);
+
+            // Cached principals are keyed by email, so evict both the old and the new one
+            principalCache.invalidate(previousEmail);
+            principalCache.invalidate(user.getEmail());
+
+            // Stateless tokens name the old email as subject, so they must stop working
+            if (!previousEmail.equals(user.getEmail())) {
+                revocationList.revoke(previousEmail);
+                registeredEmailFilter.put(user.getEmail());
+            }
 
             TenantResponseDTO responseDTO = convertToDTO(updatedTenant);
             return ResponseEntity.ok(responseDTO);
@@ -137,7 +203,11 @@ public class TenantController {
             // (e.g., setting a 'deleted' flag). This also assumes that cascading deletes
             // are handled correctly for related entities like User. If not, you must
             // delete the associated User as well.
+            List<MaintenanceRequestFile> attachments = fileRepository.findByTenantId(id);
             tenantRepository.deleteById(id);
+            tenantDirectory.remove(id);
+            // The attachment rows went with the tenant's maintenance requests; give back their blob references
+            storageService.releaseAll(attachments);
             return ResponseEntity.ok(Map.of("message", "Tenant deleted successfully."));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,13 @@
+package com.nbjgroup.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Standard error response body
+ */
+public record ErrorResponse(boolean error, String message, String errorCode, LocalDateTime timestamp) {
+
+    public static ErrorResponse of(String message, String errorCode) {
+        return new ErrorResponse(true, message, errorCode, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,29 @@
+package com.nbjgroup.dto;
+
+import com.nbjgroup.entity.Tenant;
+import com.nbjgroup.entity.User;
+
+/**
+ * Compact tenant entry for type-ahead results
+ */
+public record TenantSummary(
+        Long id,
+        Long userId,
+        String fullName,
+        String email,
+        String propertyAddress,
+        String unitNumber,
+        String status) {
+
+    public static TenantSummary from(Tenant tenant) {
+        User user = tenant.getUser();
+        return new TenantSummary(
+                tenant.getId(),
+                user.getId(),
+                user.getFullName(),
+                user.getEmail(),
+                tenant.getPropertyAddress(),
+                tenant.getUnitNumber(),
+                tenant.getStatus() != null ? tenant.getStatus().name() : null);
+    }
+}
@@ -0,0 +1,37 @@
+package com.nbjgroup.dto.auth;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * DTO for batch token validation requests
+ */
+public class BatchValidateRequest {
+
+    @NotEmpty(message = "At least one token is required")
+    private List<String> tokens;
+
+    // Constructors
+    public BatchValidateRequest() {}
+
+    public BatchValidateRequest(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    // Getters and Setters
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    public void setTokens(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchValidateRequest{" +
+                "tokens=" + (tokens != null ? tokens.size() : 0) + " [PROTECTED]" +
+                '}';
+    }
+}
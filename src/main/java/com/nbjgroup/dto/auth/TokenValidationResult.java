@@ -0,0 +1,69 @@
+package com.nbjgroup.dto.auth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nbjgroup.security.ParsedToken;
+
+/**
+ * DTO for the validation result of a single token.
+ * Fields other than valid are only present for valid tokens.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenValidationResult {
+
+    private boolean valid;
+    private String username;
+    private Long remainingTime;
+    private Boolean shouldRefresh;
+
+    // Constructors
+    public TokenValidationResult() {}
+
+    /**
+     * Build the result from a parsed token, or an invalid result if parsing failed
+     */
+    public static TokenValidationResult of(ParsedToken parsedToken) {
+        TokenValidationResult result = new TokenValidationResult();
+        if (parsedToken == null || parsedToken.isExpired()) {
+            result.setValid(false);
+            return result;
+        }
+        result.setValid(true);
+        result.setUsername(parsedToken.getSubject());
+        result.setRemainingTime(parsedToken.getRemainingTime());
+        result.setShouldRefresh(parsedToken.shouldRefresh());
+        return result;
+    }
+
+    // Getters and Setters
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Long getRemainingTime() {
+        return remainingTime;
+    }
+
+    public void setRemainingTime(Long remainingTime) {
+        this.remainingTime = remainingTime;
+    }
+
+    public Boolean getShouldRefresh() {
+        return shouldRefresh;
+    }
+
+    public void setShouldRefresh(Boolean shouldRefresh) {
+        this.shouldRefresh = shouldRefresh;
+    }
+}
@@ -0,0 +1,17 @@
+package com.nbjgroup.dto.maintenance;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Keyset-paginated maintenance request listing.
+ * nextCursor is null on the last page; totals are only present when requested.
+ */
+public record MaintenanceCursorPageResponse(
+        List<MaintenanceRequestResponse> requests,
+        int pageSize,
+        String nextCursor,
+        boolean hasMore,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long totalItems,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Boolean totalItemsApproximate) {}
@@ -0,0 +1,16 @@
+package com.nbjgroup.dto.maintenance;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Offset-paginated maintenance request listing.
+ * pageSize is only reported by the admin listing.
+ */
+public record MaintenancePageResponse(
+        List<MaintenanceRequestResponse> requests,
+        int currentPage,
+        long totalItems,
+        int totalPages,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer pageSize) {}
@@ -0,0 +1,86 @@
+package com.nbjgroup.dto.maintenance;
+
+import com.nbjgroup.entity.MaintenanceRequest;
+import com.nbjgroup.entity.MaintenanceRequestFile;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable response body for a maintenance request, including its tenant and attachments.
+ * Field names match the JSON previously built by hand in MaintenanceController.
+ */
+public record MaintenanceRequestResponse(
+        Long id,
+        String title,
+        String description,
+        MaintenanceRequest.Category category,
+        String priority,
+        String status,
+        String assignedTo,
+        String adminNotes,
+        String tenantFeedback,
+        Integer rating,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDateTime scheduledDate,
+        LocalDateTime completedAt,
+        TenantInfo tenant,
+        List<FileInfo> files) {
+
+    public static MaintenanceRequestResponse from(MaintenanceRequest request) {
+        return new MaintenanceRequestResponse(
+                request.getId(),
+                request.getTitle(),
+                request.getDescription(),
+                request.getCategory(),
+                request.getPriority().toString(),
+                request.getStatus().toString(),
+                request.getAssignedTo(),
+                request.getAdminNotes(),
+                request.getTenantFeedback(),
+                request.getTenantRating(),
+                request.getCreatedAt(),
+                request.getUpdatedAt(),
+                request.getScheduledDate(),
+                request.getCompletedAt(),
+                new TenantInfo(
+                        request.getTenant().getUser().getEmail(),
+                        request.getTenant().getEmergencyContactPhone(),
+                        request.getTenant().getPropertyAddress()),
+                request.getAttachments().stream().map(FileInfo::from).toList());
+    }
+
+    /**
+     * Tenant contact details shown with a request
+     */
+    public record TenantInfo(String email, String phone, String propertyAddress) {}
+
+    /**
+     * Attachment metadata and links
+     */
+    public record FileInfo(
+            Long id,
+            String originalFilename,
+            MaintenanceRequestFile.AttachmentType fileType,
+            String contentType,
+            Long fileSize,
+            LocalDateTime uploadedAt,
+            String downloadUrl,
+            String thumbnailUrl,
+            String viewUrl) {
+
+        public static FileInfo from(MaintenanceRequestFile file) {
+            return new FileInfo(
+                    file.getId(),
+                    file.getOriginalFileName(),
+                    file.getAttachmentType(),
+                    file.getContentType(),
+                    file.getFileSize(),
+                    file.getUploadedAt(),
+                    file.getDownloadUrl(),
+                    file.getThumbnailUrl(),
+                    "/api/files/" + file.getId());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.nbjgroup.dto.maintenance;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Request body opening a chunked upload session
+ */
+public record UploadSessionRequest(
+        @NotBlank(message = "File name is required") String fileName,
+        @NotNull(message = "File size is required") @Positive(message = "File size must be positive") Long size,
+        String contentType) {}
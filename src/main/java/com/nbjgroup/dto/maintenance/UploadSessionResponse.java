@@ -0,0 +1,28 @@
+package com.nbjgroup.dto.maintenance;
+
+import com.nbjgroup.service.ChunkedUploadService;
+
+import java.time.Instant;
+
+/**
+ * State of a chunked upload session; the next chunk must start at offset
+ */
+public record UploadSessionResponse(
+        String uploadId,
+        String fileName,
+        long offset,
+        long size,
+        long maxChunkSize,
+        Instant expiresAt) {
+
+    public static UploadSessionResponse from(ChunkedUploadService.UploadSession session, long maxChunkSize,
+                                             long sessionTtlMs) {
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getFileName(),
+                session.getOffset(),
+                session.getSize(),
+                maxChunkSize,
+                Instant.ofEpochMilli(session.getLastActivity() + sessionTtlMs));
+    }
+}
@@ -0,0 +1,11 @@
+package com.nbjgroup.dto.search;
+
+/**
+ * One search result. score is the trigram similarity in [0, 1], or null for substring-only search.
+ */
+public record SearchHit(Long id, String title, String subtitle, Double score) {
+
+    public static SearchHit from(SearchMatch match) {
+        return new SearchHit(match.getId(), match.getTitle(), match.getSubtitle(), match.getScore());
+    }
+}
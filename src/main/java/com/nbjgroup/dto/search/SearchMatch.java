@@ -0,0 +1,15 @@
+package com.nbjgroup.dto.search;
+
+/**
+ * Row projection returned by the trigram search queries
+ */
+public interface SearchMatch {
+
+    Long getId();
+
+    String getTitle();
+
+    String getSubtitle();
+
+    Double getScore();
+}
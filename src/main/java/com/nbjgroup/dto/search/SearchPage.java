@@ -0,0 +1,23 @@
+package com.nbjgroup.dto.search;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Offset-paginated search results shared by every searchable entity.
+ * fuzzy is true when results were matched and ranked by trigram similarity.
+ */
+public record SearchPage<T>(
+        String type,
+        List<T> results,
+        int currentPage,
+        long totalItems,
+        int totalPages,
+        boolean fuzzy) {
+
+    public static <T> SearchPage<T> of(String type, Page<T> page, boolean fuzzy) {
+        return new SearchPage<>(type, page.getContent(), page.getNumber(), page.getTotalElements(),
+                page.getTotalPages(), fuzzy);
+    }
+}
@@ -0,0 +1,123 @@
+package com.nbjgroup.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Attachment blob entity.
+ * Stored attachment content keyed by its SHA-256, shared by every MaintenanceRequestFile with the same
+ * content_hash. referenceCount tracks those rows; the blob and its file are removed when it drops to zero.
+ */
+@Entity
+@Table(name = "attachment_blobs")
+@EntityListeners(AuditingEntityListener.class)
+public class AttachmentBlob {
+
+    @Id
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "reference_count", nullable = false)
+    private Integer referenceCount = 1;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public AttachmentBlob() {}
+
+    public AttachmentBlob(String contentHash, String storagePath, Long size, String contentType) {
+        this.contentHash = contentHash;
+        this.storagePath = storagePath;
+        this.size = size;
+        this.contentType = contentType;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getReferenceCount() {
+        return referenceCount;
+    }
+
+    public void setReferenceCount(Integer referenceCount) {
+        this.referenceCount = referenceCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // equals, hashCode, toString
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AttachmentBlob that = (AttachmentBlob) o;
+        return Objects.equals(contentHash, that.contentHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(contentHash);
+    }
+
+    @Override
+    public String toString() {
+        return "AttachmentBlob{" +
+                "contentHash='" + contentHash + '\'' +
+                ", size=" + size +
+                ", contentType='" + contentType + '\'' +
+                ", referenceCount=" + referenceCount +
+                '}';
+    }
+}
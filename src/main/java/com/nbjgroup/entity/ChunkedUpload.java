@@ -0,0 +1,196 @@
+package com.nbjgroup.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Chunked upload entity.
+ * State of a resumable upload, shared by every application node. The node receiving a chunk holds
+ * a lease on the row while it writes, so two nodes never append to the same temporary file at once.
+ */
+@Entity
+@Table(name = "chunked_uploads", indexes = {
+    @Index(name = "idx_chunked_upload_owner", columnList = "owner_email"),
+    @Index(name = "idx_chunked_upload_activity", columnList = "last_activity")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class ChunkedUpload {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "maintenance_request_id", nullable = false)
+    private Long maintenanceRequestId;
+
+    @Column(name = "owner_email", nullable = false)
+    private String ownerEmail;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "declared_content_type", length = 100)
+    private String declaredContentType;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    @Column(name = "upload_offset", nullable = false)
+    private Long uploadOffset = 0L;
+
+    @Column(name = "temp_path", nullable = false)
+    private String tempPath;
+
+    @Column(name = "lease_owner", length = 36)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "last_activity", nullable = false)
+    private LocalDateTime lastActivity;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ChunkedUpload() {}
+
+    public ChunkedUpload(String id, Long maintenanceRequestId, String ownerEmail, String fileName,
+                         String declaredContentType, Long size, String tempPath) {
+        this.id = id;
+        this.maintenanceRequestId = maintenanceRequestId;
+        this.ownerEmail = ownerEmail;
+        this.fileName = fileName;
+        this.declaredContentType = declaredContentType;
+        this.size = size;
+        this.tempPath = tempPath;
+        this.lastActivity = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getMaintenanceRequestId() {
+        return maintenanceRequestId;
+    }
+
+    public void setMaintenanceRequestId(Long maintenanceRequestId) {
+        this.maintenanceRequestId = maintenanceRequestId;
+    }
+
+    public String getOwnerEmail() {
+        return ownerEmail;
+    }
+
+    public void setOwnerEmail(String ownerEmail) {
+        this.ownerEmail = ownerEmail;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getDeclaredContentType() {
+        return declaredContentType;
+    }
+
+    public void setDeclaredContentType(String declaredContentType) {
+        this.declaredContentType = declaredContentType;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public Long getUploadOffset() {
+        return uploadOffset;
+    }
+
+    public void setUploadOffset(Long uploadOffset) {
+        this.uploadOffset = uploadOffset;
+    }
+
+    public String getTempPath() {
+        return tempPath;
+    }
+
+    public void setTempPath(String tempPath) {
+        this.tempPath = tempPath;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(LocalDateTime leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    public LocalDateTime getLastActivity() {
+        return lastActivity;
+    }
+
+    public void setLastActivity(LocalDateTime lastActivity) {
+        this.lastActivity = lastActivity;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // equals, hashCode, toString
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChunkedUpload that = (ChunkedUpload) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ChunkedUpload{" +
+                "id='" + id + '\'' +
+                ", maintenanceRequestId=" + maintenanceRequestId +
+                ", size=" + size +
+                ", uploadOffset=" + uploadOffset +
+                '}';
+    }
+}
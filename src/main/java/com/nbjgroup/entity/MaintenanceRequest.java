@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -113,7 +114,9 @@ public class MaintenanceRequest {
     private LocalDateTime updatedAt;
 
     // One-to-Many relationship with MaintenanceRequestFile
+    // Initialised for a whole page of requests in one IN query instead of one query per request
     @OneToMany(mappedBy = "maintenanceRequest", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<MaintenanceRequestFile> attachments = new ArrayList<>();
 
     // Constructors
@@ -15,7 +15,8 @@ import java.util.Objects;
 @Entity
 @Table(name = "maintenance_request_files", indexes = {
     @Index(name = "idx_maintenance_file_request", columnList = "maintenance_request_id"),
-    @Index(name = "idx_maintenance_file_type", columnList = "file_type")
+    @Index(name = "idx_maintenance_file_type", columnList = "file_type"),
+    @Index(name = "idx_maintenance_file_content_hash", columnList = "content_hash")
 })
 @EntityListeners(AuditingEntityListener.class)
 public class MaintenanceRequestFile {
@@ -51,6 +52,13 @@ public class MaintenanceRequestFile {
     @Column(name = "file_extension")
     private String fileExtension;
 
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    // Hex SHA-256 of the stored bytes
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "attachment_type", nullable = false)
     private AttachmentType attachmentType = AttachmentType.IMAGE;
@@ -121,7 +129,7 @@ public class MaintenanceRequestFile {
 
     public String getThumbnailUrl() {
         if (isImage()) {
-            return "/api/maintenance-requests/" + maintenanceRequest.getId() + "/files/" + id + "/thumbnail";
+            return "/api/files/" + id + "/thumbnail";
         }
         return null;
     }
@@ -208,6 +216,22 @@ public class MaintenanceRequestFile {
         this.description = description;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Boolean getIsPublic() {
         return isPublic;
     }
@@ -0,0 +1,136 @@
+package com.nbjgroup.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Refresh token family entity.
+ * Every login starts a family; each refresh rotates its current token id, so only the most
+ * recently issued refresh token of a family is accepted. Presenting an older one revokes the family.
+ */
+@Entity
+@Table(name = "refresh_token_families", indexes = {
+    @Index(name = "idx_refresh_family_user", columnList = "user_email"),
+    @Index(name = "idx_refresh_family_expires", columnList = "expires_at")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class RefreshTokenFamily {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "current_token_id", nullable = false, length = 36)
+    private String currentTokenId;
+
+    @Column(nullable = false)
+    private Boolean revoked = false;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+
+    // Constructors
+    public RefreshTokenFamily() {}
+
+    public RefreshTokenFamily(String id, String userEmail, String currentTokenId, LocalDateTime expiresAt) {
+        this.id = id;
+        this.userEmail = userEmail;
+        this.currentTokenId = currentTokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public String getCurrentTokenId() {
+        return currentTokenId;
+    }
+
+    public void setCurrentTokenId(String currentTokenId) {
+        this.currentTokenId = currentTokenId;
+    }
+
+    public Boolean getRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(Boolean revoked) {
+        this.revoked = revoked;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getRotatedAt() {
+        return rotatedAt;
+    }
+
+    public void setRotatedAt(LocalDateTime rotatedAt) {
+        this.rotatedAt = rotatedAt;
+    }
+
+    // equals, hashCode, toString
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RefreshTokenFamily that = (RefreshTokenFamily) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshTokenFamily{" +
+                "id='" + id + '\'' +
+                ", userEmail='" + userEmail + '\'' +
+                ", revoked=" + revoked +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
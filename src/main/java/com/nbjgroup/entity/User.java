@@ -274,7 +274,8 @@ public class User implements UserDetails {
      */
     public enum Role {
         ADMIN("Property Manager"),
-        TENANT("Tenant User");
+        TENANT("Tenant User"),
+        SERVICE("Service Account"); // gateways calling /auth/validate/batch
 
         private final String displayName;
 
@@ -0,0 +1,85 @@
+package com.nbjgroup.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * User revocation entity.
+ * Access tokens issued to the user up to revokedAt are no longer honoured. The row is only needed
+ * until the last of those tokens has expired, at expiresAt.
+ */
+@Entity
+@Table(name = "user_revocations", indexes = {
+    @Index(name = "idx_user_revocation_expires", columnList = "expires_at")
+})
+public class UserRevocation {
+
+    @Id
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public UserRevocation() {}
+
+    public UserRevocation(String userEmail, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        this.userEmail = userEmail;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    // equals, hashCode, toString
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UserRevocation that = (UserRevocation) o;
+        return Objects.equals(userEmail, that.userEmail);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userEmail);
+    }
+
+    @Override
+    public String toString() {
+        return "UserRevocation{" +
+                "userEmail='" + userEmail + '\'' +
+                ", revokedAt=" + revokedAt +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package com.nbjgroup.repository;
+
+import com.nbjgroup.entity.AttachmentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for AttachmentBlob entity operations.
+ * Reference counts only change through single statements or under a row lock, never an unlocked
+ * read-modify-write, so several application nodes can share the blob store.
+ */
+@Repository
+public interface AttachmentBlobRepository extends JpaRepository<AttachmentBlob, String> {
+
+    /**
+     * Take a reference to the blob for a hash, creating its row if there is none, and return the
+     * new reference count (PostgreSQL only). The row stays locked until the transaction ends.
+     */
+    @Query(value = "INSERT INTO attachment_blobs " +
+            "(content_hash, storage_path, size, content_type, reference_count, created_at) " +
+            "VALUES (:contentHash, :storagePath, :size, :contentType, 1, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (content_hash) DO UPDATE SET reference_count = attachment_blobs.reference_count + 1 " +
+            "RETURNING reference_count",
+            nativeQuery = true)
+    int upsertReference(@Param("contentHash") String contentHash,
+                        @Param("storagePath") String storagePath,
+                        @Param("size") long size,
+                        @Param("contentType") String contentType);
+
+    /**
+     * Add a reference to an existing blob; returns 0 if there is no such blob
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AttachmentBlob b SET b.referenceCount = b.referenceCount + 1 WHERE b.contentHash = :contentHash")
+    int addReference(@Param("contentHash") String contentHash);
+
+    /**
+     * Load a blob and lock its row until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM AttachmentBlob b WHERE b.contentHash = :contentHash")
+    Optional<AttachmentBlob> findForUpdate(@Param("contentHash") String contentHash);
+}
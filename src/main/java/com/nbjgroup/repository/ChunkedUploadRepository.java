@@ -0,0 +1,66 @@
+package com.nbjgroup.repository;
+
+import com.nbjgroup.entity.ChunkedUpload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for ChunkedUpload entity operations.
+ * Writers coordinate through a lease taken with a single conditional update, so no transaction or
+ * row lock is held while a chunk is read from the network.
+ */
+@Repository
+public interface ChunkedUploadRepository extends JpaRepository<ChunkedUpload, String> {
+
+    /**
+     * Count the sessions a user has open
+     */
+    long countByOwnerEmail(String ownerEmail);
+
+    /**
+     * Take or renew the write lease on a session; returns 0 if another node holds a live lease
+     * or the session is gone
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChunkedUpload u SET u.leaseOwner = :node, u.leaseUntil = :until " +
+           "WHERE u.id = :id AND (u.leaseOwner IS NULL OR u.leaseOwner = :node OR u.leaseUntil < :now)")
+    int claimLease(@Param("id") String id,
+                   @Param("node") String node,
+                   @Param("until") LocalDateTime until,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Record the offset reached and give up the lease, if this node still holds it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ChunkedUpload u SET u.uploadOffset = :offset, u.lastActivity = :now, " +
+           "u.leaseOwner = NULL, u.leaseUntil = NULL WHERE u.id = :id AND u.leaseOwner = :node")
+    int recordProgress(@Param("id") String id,
+                       @Param("node") String node,
+                       @Param("offset") long offset,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Delete a session whose lease this node holds
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ChunkedUpload u WHERE u.id = :id AND u.leaseOwner = :node")
+    int deleteLeased(@Param("id") String id, @Param("node") String node);
+
+    /**
+     * Find sessions idle since before the cutoff that no node is writing to
+     */
+    @Query("SELECT u FROM ChunkedUpload u WHERE u.lastActivity < :cutoff " +
+           "AND (u.leaseUntil IS NULL OR u.leaseUntil < :now)")
+    List<ChunkedUpload> findIdle(@Param("cutoff") LocalDateTime cutoff, @Param("now") LocalDateTime now);
+}
@@ -1,5 +1,6 @@
 package com.nbjgroup.repository;
 
+import com.nbjgroup.dto.search.SearchMatch;
 import com.nbjgroup.entity.LeaseAgreement;
 import com.nbjgroup.entity.Tenant;
 import org.springframework.data.domain.Page;
@@ -158,12 +159,25 @@ public interface LeaseAgreementRepository extends JpaRepository<LeaseAgreement,
                                         @Param("endDate") LocalDate endDate);
 
     /**
-     * Search lease agreements by tenant name
+     * Search lease agreements by tenant name; tenantName must be LIKE-escaped
      */
     @Query("SELECT la FROM LeaseAgreement la JOIN la.tenant t JOIN t.user u WHERE " +
-           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :tenantName, '%'))")
+           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :tenantName, '%')) ESCAPE '\\'")
     Page<LeaseAgreement> searchByTenantName(@Param("tenantName") String tenantName, Pageable pageable);
 
+    /**
+     * Typo-tolerant search by tenant name (PostgreSQL pg_trgm); tenantName must already be lower case
+     */
+    @Query(value = "SELECT la.id AS id, u.first_name || ' ' || u.last_name AS title, t.property_address AS subtitle, " +
+            "CAST(word_similarity(:tenantName, lower(u.first_name || ' ' || u.last_name)) AS double precision) AS score " +
+            "FROM lease_agreements la JOIN tenants t ON t.id = la.tenant_id JOIN users u ON u.id = t.user_id " +
+            "WHERE :tenantName <% lower(u.first_name || ' ' || u.last_name) " +
+            "ORDER BY score DESC, la.id DESC",
+            countQuery = "SELECT COUNT(*) FROM lease_agreements la JOIN tenants t ON t.id = la.tenant_id " +
+                    "JOIN users u ON u.id = t.user_id WHERE :tenantName <% lower(u.first_name || ' ' || u.last_name)",
+            nativeQuery = true)
+    Page<SearchMatch> fuzzySearchByTenantName(@Param("tenantName") String tenantName, Pageable pageable);
+
     /**
      * Find lease agreements by property address
      */
@@ -134,6 +134,24 @@ public interface MaintenanceRequestFileRepository extends JpaRepository<Maintena
     @Query("SELECT f.fileType, COUNT(f) FROM MaintenanceRequestFile f GROUP BY f.fileType")
     List<Object[]> getFileTypeDistribution();
 
+    /**
+     * Check whether any attachment holds content with the given hash
+     */
+    boolean existsByContentHash(String contentHash);
+
+    /**
+     * Check whether the user with the given email owns an attachment with the given content hash
+     */
+    @Query("SELECT COUNT(f) > 0 FROM MaintenanceRequestFile f " +
+           "WHERE f.contentHash = :contentHash AND f.maintenanceRequest.tenant.user.email = :email")
+    boolean existsByContentHashAndOwnerEmail(@Param("contentHash") String contentHash, @Param("email") String email);
+
+    /**
+     * Find all files attached to any maintenance request of a tenant
+     */
+    @Query("SELECT f FROM MaintenanceRequestFile f WHERE f.maintenanceRequest.tenant.id = :tenantId")
+    List<MaintenanceRequestFile> findByTenantId(@Param("tenantId") Long tenantId);
+
     /**
      * Find files by multiple criteria
      */
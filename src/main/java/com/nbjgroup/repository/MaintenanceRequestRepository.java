@@ -4,23 +4,68 @@ import com.nbjgroup.entity.MaintenanceRequest;
 import com.nbjgroup.entity.Tenant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MaintenanceRequestRepository extends JpaRepository<MaintenanceRequest, Long> {
 
-    // Methods for the controller's filtering
+    // Methods for the controller's filtering.
+    // Listing pages fetch tenant and tenant.user in the same query; attachments are batch-loaded
+    // (see @BatchSize on MaintenanceRequest.attachments), so a page costs two queries plus the count.
+    @Override
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
+    Page<MaintenanceRequest> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
     Page<MaintenanceRequest> findByTenant(Tenant tenant, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
     Page<MaintenanceRequest> findByStatus(MaintenanceRequest.RequestStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
     Page<MaintenanceRequest> findByPriorityOrderByCreatedAtDesc(MaintenanceRequest.Priority priority, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
     Page<MaintenanceRequest> findByStatusAndPriority(MaintenanceRequest.RequestStatus status, MaintenanceRequest.Priority priority, Pageable pageable);
 
+    // Keyset pagination over (createdAt, id) descending; pass PageRequest.of(0, limit) to cap the rows
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
+    @Query("SELECT mr FROM MaintenanceRequest mr WHERE " +
+            "(:status IS NULL OR mr.status = :status) AND " +
+            "(:priority IS NULL OR mr.priority = :priority) AND " +
+            "(:tenantId IS NULL OR mr.tenant.id = :tenantId) " +
+            "ORDER BY mr.createdAt DESC, mr.id DESC")
+    List<MaintenanceRequest> findFirstKeysetPage(@Param("status") MaintenanceRequest.RequestStatus status,
+                                                 @Param("priority") MaintenanceRequest.Priority priority,
+                                                 @Param("tenantId") Long tenantId,
+                                                 Pageable limit);
+
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
+    @Query("SELECT mr FROM MaintenanceRequest mr WHERE " +
+            "(:status IS NULL OR mr.status = :status) AND " +
+            "(:priority IS NULL OR mr.priority = :priority) AND " +
+            "(:tenantId IS NULL OR mr.tenant.id = :tenantId) AND " +
+            "(mr.createdAt < :createdAt OR (mr.createdAt = :createdAt AND mr.id < :id)) " +
+            "ORDER BY mr.createdAt DESC, mr.id DESC")
+    List<MaintenanceRequest> findKeysetPageAfter(@Param("status") MaintenanceRequest.RequestStatus status,
+                                                 @Param("priority") MaintenanceRequest.Priority priority,
+                                                 @Param("tenantId") Long tenantId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable limit);
+
+    // Planner row estimate for the whole table (PostgreSQL only); -1, or 0 before PostgreSQL 14, if never analyzed
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE relname = 'maintenance_requests'", nativeQuery = true)
+    Long estimateRowCount();
+
     // Existing and other useful methods
     List<MaintenanceRequest> findByTenantOrderByCreatedAtDesc(Tenant tenant);
     Page<MaintenanceRequest> findByTenantOrderByCreatedAtDesc(Tenant tenant, Pageable pageable);
@@ -49,17 +94,34 @@ public interface MaintenanceRequestRepository extends JpaRepository<MaintenanceR
     @Query("SELECT mr FROM MaintenanceRequest mr WHERE mr.priority IN ('HIGH', 'URGENT', 'EMERGENCY') AND mr.status NOT IN ('COMPLETED', 'CANCELLED') ORDER BY mr.priority DESC, mr.createdAt ASC")
     List<MaintenanceRequest> findHighPriorityRequests();
 
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
     @Query("SELECT mr FROM MaintenanceRequest mr WHERE " +
-            "LOWER(mr.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(mr.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+            "LOWER(mr.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+            "LOWER(mr.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\'")
     Page<MaintenanceRequest> searchRequests(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    // Full-text search over the search_vector column added by db/migration/V1__maintenance_search_vector.sql (PostgreSQL only).
+    // Returns ids in rank order; load the rows with findAllWithTenantByIdIn.
+    @Query(value = "SELECT mr.id FROM maintenance_requests mr, websearch_to_tsquery('english', :searchTerm) query " +
+            "WHERE mr.search_vector @@ query " +
+            "ORDER BY ts_rank(mr.search_vector, query) DESC, mr.id DESC",
+            countQuery = "SELECT COUNT(*) FROM maintenance_requests mr " +
+                    "WHERE mr.search_vector @@ websearch_to_tsquery('english', :searchTerm)",
+            nativeQuery = true)
+    Page<Long> searchIdsByFullText(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"tenant", "tenant.user"})
+    @Query("SELECT mr FROM MaintenanceRequest mr WHERE mr.id IN :ids")
+    List<MaintenanceRequest> findAllWithTenantByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT DISTINCT mr FROM MaintenanceRequest mr JOIN mr.attachments WHERE mr.attachments IS NOT EMPTY")
     List<MaintenanceRequest> findRequestsWithAttachments();
 
     long countByStatus(MaintenanceRequest.RequestStatus status);
     long countByPriority(MaintenanceRequest.Priority priority);
     long countByCategory(String category); // Changed to String
+    long countByStatusAndPriority(MaintenanceRequest.RequestStatus status, MaintenanceRequest.Priority priority);
+    long countByTenant(Tenant tenant);
 
     @Query("SELECT COUNT(mr) FROM MaintenanceRequest mr WHERE mr.scheduledDate < :currentDateTime AND mr.status NOT IN ('COMPLETED', 'CANCELLED')")
     long countOverdueRequests(@Param("currentDateTime") LocalDateTime currentDateTime);
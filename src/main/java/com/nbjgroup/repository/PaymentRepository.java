@@ -1,5 +1,6 @@
 package com.nbjgroup.repository;
 
+import com.nbjgroup.dto.search.SearchMatch;
 import com.nbjgroup.entity.Payment;
 import com.nbjgroup.entity.Tenant;
 import org.springframework.data.domain.Page;
@@ -145,14 +146,37 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findRecentPayments(@Param("sinceDate") LocalDate sinceDate);
 
     /**
-     * Search payments by tenant name or transaction ID
+     * Search payments by tenant name or transaction ID; searchTerm must be LIKE-escaped
      */
     @Query("SELECT p FROM Payment p JOIN p.tenant t JOIN t.user u WHERE " +
-           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.transactionId) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.referenceNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(p.transactionId) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(p.referenceNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\'")
     Page<Payment> searchPayments(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    String FUZZY_MATCH = "(:searchTerm <% lower(u.first_name || ' ' || u.last_name) " +
+            "OR lower(p.transaction_id) LIKE :pattern ESCAPE '\\' " +
+            "OR lower(p.reference_number) LIKE :pattern ESCAPE '\\' " +
+            "OR lower(p.transaction_id) % :searchTerm " +
+            "OR lower(p.reference_number) % :searchTerm)";
+
+    /**
+     * Typo-tolerant search by tenant name, transaction ID or reference number (PostgreSQL pg_trgm).
+     * searchTerm must already be lower case; pattern is the LIKE-escaped substring pattern for the same term.
+     */
+    @Query(value = "SELECT p.id AS id, u.first_name || ' ' || u.last_name AS title, " +
+            "COALESCE(p.transaction_id, p.reference_number) AS subtitle, " +
+            "CAST(GREATEST(word_similarity(:searchTerm, lower(u.first_name || ' ' || u.last_name)), " +
+            "COALESCE(similarity(:searchTerm, lower(p.transaction_id)), 0), " +
+            "COALESCE(similarity(:searchTerm, lower(p.reference_number)), 0)) AS double precision) AS score " +
+            "FROM payments p JOIN tenants t ON t.id = p.tenant_id JOIN users u ON u.id = t.user_id WHERE " + FUZZY_MATCH +
+            " ORDER BY score DESC, p.id DESC",
+            countQuery = "SELECT COUNT(*) FROM payments p JOIN tenants t ON t.id = p.tenant_id " +
+                    "JOIN users u ON u.id = t.user_id WHERE " + FUZZY_MATCH,
+            nativeQuery = true)
+    Page<SearchMatch> fuzzySearchPayments(@Param("searchTerm") String searchTerm, @Param("pattern") String pattern,
+                                          Pageable pageable);
+
     /**
      * Find payments by amount range
      */
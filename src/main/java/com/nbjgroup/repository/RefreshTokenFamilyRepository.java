@@ -0,0 +1,61 @@
+package com.nbjgroup.repository;
+
+import com.nbjgroup.entity.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for RefreshTokenFamily entity operations.
+ * Rotation is a single conditional update, so concurrent refreshes of the same token cannot both win.
+ */
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    /**
+     * Replace the current token id if, and only if, the presented one is still current.
+     * The family keeps the expiry it was created with, so rotation never extends a login.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshTokenFamily f SET f.currentTokenId = :newTokenId, f.rotatedAt = :now " +
+           "WHERE f.id = :id AND f.currentTokenId = :currentTokenId AND f.revoked = false AND f.expiresAt > :now")
+    int rotate(@Param("id") String id,
+               @Param("currentTokenId") String currentTokenId,
+               @Param("newTokenId") String newTokenId,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * Revoke a single family
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true WHERE f.id = :id AND f.revoked = false")
+    int revoke(@Param("id") String id);
+
+    /**
+     * Find live families of a user
+     */
+    @Query("SELECT f FROM RefreshTokenFamily f WHERE f.userEmail = :email AND f.revoked = false AND f.expiresAt > :now")
+    List<RefreshTokenFamily> findActiveByUserEmail(@Param("email") String email, @Param("now") LocalDateTime now);
+
+    /**
+     * Find revoked families that have not expired yet
+     */
+    @Query("SELECT f FROM RefreshTokenFamily f WHERE f.revoked = true AND f.expiresAt > :now")
+    List<RefreshTokenFamily> findRevokedUnexpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Delete families whose last token has expired
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,5 +1,6 @@
 package com.nbjgroup.repository;
 
+import com.nbjgroup.dto.search.SearchMatch;
 import com.nbjgroup.entity.Tenant;
 import com.nbjgroup.entity.User;
 import org.springframework.data.domain.Page;
@@ -80,16 +81,35 @@ public interface TenantRepository extends JpaRepository<Tenant, Long> {
                                         @Param("maxRent") BigDecimal maxRent);
 
     /**
-     * Search tenants by name or property
+     * Search tenants by name or property; searchTerm must be LIKE-escaped
      */
     @Query("SELECT t FROM Tenant t JOIN t.user u WHERE " +
-           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(t.propertyAddress) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(t.unitNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(t.propertyAddress) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(t.unitNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\'")
     Page<Tenant> searchTenants(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    String FUZZY_MATCH = "(:searchTerm <% lower(u.first_name || ' ' || u.last_name) " +
+            "OR :searchTerm <% lower(t.property_address) " +
+            "OR lower(t.unit_number) LIKE :pattern ESCAPE '\\')";
+
+    /**
+     * Typo-tolerant search by tenant name, property address or unit number (PostgreSQL pg_trgm).
+     * searchTerm must already be lower case so the trigram indexes on the lowered expressions apply;
+     * pattern is the LIKE-escaped substring pattern for the same term.
+     */
+    @Query(value = "SELECT t.id AS id, u.first_name || ' ' || u.last_name AS title, t.property_address AS subtitle, " +
+            "CAST(GREATEST(word_similarity(:searchTerm, lower(u.first_name || ' ' || u.last_name)), " +
+            "word_similarity(:searchTerm, lower(t.property_address))) AS double precision) AS score " +
+            "FROM tenants t JOIN users u ON u.id = t.user_id WHERE " + FUZZY_MATCH +
+            " ORDER BY score DESC, t.id DESC",
+            countQuery = "SELECT COUNT(*) FROM tenants t JOIN users u ON u.id = t.user_id WHERE " + FUZZY_MATCH,
+            nativeQuery = true)
+    Page<SearchMatch> fuzzySearchTenants(@Param("searchTerm") String searchTerm, @Param("pattern") String pattern,
+                                         Pageable pageable);
+
     /**
      * Find tenants with pending maintenance requests
      */
@@ -1,9 +1,11 @@
 package com.nbjgroup.repository;
 
+import com.nbjgroup.dto.search.SearchMatch;
 import com.nbjgroup.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,6 +31,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByEmail(String email);
 
+    /**
+     * Replace the stored password hash (used when rehashing on login)
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
     /**
      * Find users by role
      */
@@ -64,14 +73,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> searchByName(@Param("searchTerm") String searchTerm);
 
     /**
-     * Search users by name with pagination
+     * Search users by name with pagination; searchTerm must be LIKE-escaped
      */
     @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\' OR " +
+           "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :searchTerm, '%')) ESCAPE '\\'")
     Page<User> searchByName(@Param("searchTerm") String searchTerm, Pageable pageable);
 
+    /**
+     * Typo-tolerant search by full name (PostgreSQL pg_trgm); searchTerm must already be lower case
+     */
+    @Query(value = "SELECT u.id AS id, u.first_name || ' ' || u.last_name AS title, u.email AS subtitle, " +
+            "CAST(word_similarity(:searchTerm, lower(u.first_name || ' ' || u.last_name)) AS double precision) AS score " +
+            "FROM users u WHERE :searchTerm <% lower(u.first_name || ' ' || u.last_name) " +
+            "ORDER BY score DESC, u.id DESC",
+            countQuery = "SELECT COUNT(*) FROM users u WHERE :searchTerm <% lower(u.first_name || ' ' || u.last_name)",
+            nativeQuery = true)
+    Page<SearchMatch> fuzzySearchByName(@Param("searchTerm") String searchTerm, Pageable pageable);
+
     /**
      * Find users created within a date range
      */
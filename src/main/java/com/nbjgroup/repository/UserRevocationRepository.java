@@ -0,0 +1,42 @@
+package com.nbjgroup.repository;
+
+import com.nbjgroup.entity.UserRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for UserRevocation entity operations.
+ */
+@Repository
+public interface UserRevocationRepository extends JpaRepository<UserRevocation, String> {
+
+    /**
+     * Move an existing revocation forward; returns 0 if the user has none
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserRevocation r SET r.revokedAt = :revokedAt, r.expiresAt = :expiresAt WHERE r.userEmail = :email")
+    int update(@Param("email") String email,
+               @Param("revokedAt") LocalDateTime revokedAt,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Find revocations that still cover unexpired tokens
+     */
+    List<UserRevocation> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Delete revocations whose tokens have all expired
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
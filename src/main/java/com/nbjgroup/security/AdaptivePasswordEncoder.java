@@ -0,0 +1,92 @@
+package com.nbjgroup.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password encoder whose cost is calibrated at startup against a latency target.
+ * Stored hashes with a lower cost are reported by {@link #upgradeEncoding(String)}, so
+ * Spring Security rehashes them transparently on the next successful login. Hashes with a
+ * higher cost are kept: calibration differs between nodes and runs, and rehashing in both
+ * directions would let nodes keep rewriting each other's hashes.
+ */
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePasswordEncoder.class);
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([aby])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    /**
+     * Use a fixed BCrypt cost
+     */
+    public AdaptivePasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Pick the highest BCrypt cost between minStrength and maxStrength that hashes within the target latency
+     */
+    public static AdaptivePasswordEncoder calibrated(long targetLatencyMs, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration-warmup");
+
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-password-" + i);
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        // Each extra cost step doubles the work
+        double baselineMs = Math.max(fastestNanos / 1_000_000.0, 0.001);
+        int strength = minStrength;
+        double expectedMs = baselineMs;
+        while (strength < maxStrength && expectedMs * 2 <= targetLatencyMs) {
+            strength++;
+            expectedMs *= 2;
+        }
+
+        logger.info("Calibrated BCrypt cost {} (~{} ms per hash, target {} ms)",
+                strength, Math.round(expectedMs), targetLatencyMs);
+        return new AdaptivePasswordEncoder(strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * Rehash only when the stored cost is below the calibrated one
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(2)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+}
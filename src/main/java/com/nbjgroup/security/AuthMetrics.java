@@ -0,0 +1,89 @@
+package com.nbjgroup.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the authentication path, exported through the actuator metrics endpoint.
+ * Meters used on every request are registered up front so recording never does a registry lookup.
+ * Password hashing time and queueing are recorded by {@link PasswordHashingExecutor}, and principal
+ * cache statistics by {@link PrincipalCache}.
+ */
+@Component
+public class AuthMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Timer tokenParseValid;
+    private final Timer tokenParseInvalid;
+    private final Timer principalLoadClaims;
+    private final Timer principalLoadCache;
+    private final Counter loginSuccess;
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.tokenParseValid = tokenParseTimer("valid");
+        this.tokenParseInvalid = tokenParseTimer("invalid");
+        this.principalLoadClaims = principalLoadTimer("claims");
+        this.principalLoadCache = principalLoadTimer("cache");
+        this.loginSuccess = Counter.builder("auth.login")
+                .description("Login attempts by outcome and failure reason")
+                .tag("outcome", "success")
+                .tag("reason", "none")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the time taken to parse and verify a JWT
+     */
+    public void recordTokenParse(long nanos, boolean valid) {
+        (valid ? tokenParseValid : tokenParseInvalid).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the time taken to resolve the principal for a verified token, from its claims or the principal cache
+     */
+    public void recordPrincipalLoad(long nanos, boolean fromClaims) {
+        (fromClaims ? principalLoadClaims : principalLoadCache).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count a successful login
+     */
+    public void loginSucceeded() {
+        loginSuccess.increment();
+    }
+
+    /**
+     * Count a failed or rejected login, e.g. bad_credentials, disabled, throttled, busy
+     */
+    public void loginFailed(String reason) {
+        meterRegistry.counter("auth.login", "outcome", "failure", "reason", reason).increment();
+    }
+
+    /**
+     * Count a refresh attempt, e.g. success, invalid, revoked, error
+     */
+    public void refreshOutcome(String outcome) {
+        meterRegistry.counter("auth.refresh", "outcome", outcome).increment();
+    }
+
+    private Timer tokenParseTimer(String result) {
+        return Timer.builder("auth.token.parse")
+                .description("Time spent parsing and verifying a JWT")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer principalLoadTimer(String source) {
+        return Timer.builder("auth.principal.load")
+                .description("Time spent resolving the principal for a verified JWT")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,118 @@
+package com.nbjgroup.security;
+
+import com.nbjgroup.dto.auth.TokenValidationResult;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token validation for gateways, on a dedicated, bounded worker pool.
+ * Large batches are split into slices; the request thread validates the first slice itself and the
+ * pool the rest, so a burst of batches cannot take over the common ForkJoinPool that parallel streams
+ * share. When the queue is full, batches are rejected immediately with RejectedExecutionException.
+ */
+@Component
+public class BatchTokenValidator {
+
+    // Smaller batches are validated on the request thread; handing off costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 8;
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserRevocationList revocationList;
+
+    public BatchTokenValidator(@Value("${app.jwt.validate-batch-pool-size:0}") int poolSize,
+                               @Value("${app.jwt.validate-batch-queue-capacity:16}") int queueCapacity) {
+        this.threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "token-validation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Validate one token; tokens of revoked users are reported as invalid
+     */
+    public TokenValidationResult validate(String token) {
+        ParsedToken parsedToken = tokenProvider.parseToken(token);
+        if (parsedToken != null && revocationList.isRevoked(parsedToken.getSubject(), parsedToken.getIssuedAt())) {
+            return TokenValidationResult.of(null);
+        }
+        return TokenValidationResult.of(parsedToken);
+    }
+
+    /**
+     * Validate a batch, returning results in request order.
+     * Throws RejectedExecutionException straight away if the pool is saturated.
+     */
+    public List<TokenValidationResult> validateAll(List<String> tokens) {
+        if (tokens.size() < PARALLEL_THRESHOLD) {
+            return validateSlice(tokens);
+        }
+
+        int slices = Math.min(threads + 1, (tokens.size() + PARALLEL_THRESHOLD - 1) / PARALLEL_THRESHOLD);
+        int sliceSize = (tokens.size() + slices - 1) / slices;
+
+        List<Future<List<TokenValidationResult>>> futures = new ArrayList<>();
+        try {
+            for (int from = sliceSize; from < tokens.size(); from += sliceSize) {
+                List<String> slice = tokens.subList(from, Math.min(from + sliceSize, tokens.size()));
+                futures.add(executor.submit(() -> validateSlice(slice)));
+            }
+        } catch (RejectedExecutionException e) {
+            futures.forEach(future -> future.cancel(false));
+            throw e;
+        }
+
+        List<TokenValidationResult> results = new ArrayList<>(tokens.size());
+        results.addAll(validateSlice(tokens.subList(0, sliceSize)));
+        try {
+            for (Future<List<TokenValidationResult>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(false));
+            throw new IllegalStateException("Interrupted while validating tokens", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Token validation failed", e.getCause());
+        }
+        return results;
+    }
+
+    private List<TokenValidationResult> validateSlice(List<String> tokens) {
+        List<TokenValidationResult> results = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            results.add(validate(token));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
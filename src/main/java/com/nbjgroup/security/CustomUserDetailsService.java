@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -20,13 +21,25 @@ import java.util.Collections;
  * Integrates with Spring Security authentication mechanism.
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserRevocationList revocationList;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
     /**
      * Load user by username (email in our case)
      */
@@ -48,6 +61,21 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
+
+    /**
+     * Store a rehashed password after a successful login (called by Spring Security
+     * when the encoder reports that the stored hash needs upgrading)
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        logger.debug("Rehashed stored password for user: {}", user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
     /**
      * Load user by ID (useful for JWT token validation)
      */
@@ -125,18 +153,11 @@ public class CustomUserDetailsService implements UserDetailsService {
     }
 
     /**
-     * Update user last login timestamp
+     * Update user last login timestamp (buffered and written in batches)
      */
-    @Transactional
     public void updateLastLogin(String email) {
-        try {
-            User user = getUserByEmail(email);
-            user.setUpdatedAt(java.time.LocalDateTime.now());
-            userRepository.save(user);
-            logger.debug("Updated last login for user: {}", email);
-        } catch (Exception e) {
-            logger.error("Failed to update last login for user: {}", email, e);
-        }
+        lastLoginRecorder.record(email);
+        logger.debug("Recorded last login for user: {}", email);
     }
 
     /**
@@ -149,6 +170,7 @@ public class CustomUserDetailsService implements UserDetailsService {
             user.setIsActive(true);
             user.setEmailVerified(true);
             userRepository.save(user);
+            principalCache.invalidate(email);
             logger.info("Activated user account: {}", email);
         } catch (Exception e) {
             logger.error("Failed to activate user account: {}", email, e);
@@ -165,6 +187,9 @@ public class CustomUserDetailsService implements UserDetailsService {
             User user = getUserByEmail(email);
             user.setIsActive(false);
             userRepository.save(user);
+            principalCache.invalidate(email);
+            revocationList.revoke(email);
+            refreshTokenStore.revokeAllForUser(email);
             logger.info("Deactivated user account: {}", email);
         } catch (Exception e) {
             logger.error("Failed to deactivate user account: {}", email, e);
@@ -7,7 +7,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 /**
  * JWT Authentication Filter that processes JWT tokens from HTTP requests.
@@ -33,20 +36,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserRevocationList revocationList;
+
+    @Autowired
+    private PublicRouteMatcher publicRouteMatcher;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         try {
             String jwt = getJwtFromRequest(request);
-            
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                // Load user details
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                if (tokenProvider.validateToken(jwt, userDetails)) {
+
+            // Parse and verify the token once; everything below works off the parsed claims
+            ParsedToken parsedToken = StringUtils.hasText(jwt) ? tokenProvider.parseToken(jwt) : null;
+
+            if (parsedToken != null) {
+                String username = parsedToken.getSubject();
+
+                // Load user details from the token claims or the principal cache
+                UserDetails userDetails = loadPrincipal(parsedToken);
+
+                if (tokenProvider.validateToken(parsedToken, userDetails)) {
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(
@@ -83,6 +101,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolve the principal for a verified token.
+     * In stateless mode, tokens carrying role claims are trusted without any user lookup,
+     * subject to the revocation list; all other tokens go through the principal cache.
+     */
+    private UserDetails loadPrincipal(ParsedToken parsedToken) {
+        String username = parsedToken.getSubject();
+        long start = System.nanoTime();
+
+        if (tokenProvider.isStatelessAuth() && parsedToken.hasRoleClaims()) {
+            if (!parsedToken.getActive() || revocationList.isRevoked(username, parsedToken.getIssuedAt())) {
+                logger.warn("Rejected stateless token for inactive or revoked user: {}", username);
+                throw new DisabledException("User account is inactive.");
+            }
+            UserDetails principal = new org.springframework.security.core.userdetails.User(
+                    username,
+                    "",
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + parsedToken.getRole()))
+            );
+            authMetrics.recordPrincipalLoad(System.nanoTime() - start, true);
+            return principal;
+        }
+
+        UserDetails principal = principalCache.get(username, userDetailsService::loadUserByUsername);
+        authMetrics.recordPrincipalLoad(System.nanoTime() - start, false);
+        return principal;
+    }
+
     /**
      * Extract JWT token from request header
      */
@@ -104,64 +150,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     /**
      * Check if the request should be filtered
-     * Skip authentication for public endpoints
+     * Skip authentication for public endpoints and CORS preflight requests
      */
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-        
-        // Skip authentication for public endpoints
-        return isPublicEndpoint(path, method);
-    }
-
-    /**
-     * Check if endpoint is public (doesn't require authentication)
-     */
-    private boolean isPublicEndpoint(String path, String method) {
-        // Public endpoints that don't require authentication
-        String[] publicPaths = {
-            "/api/auth/login",
-            "/api/auth/register",
-            "/api/auth/refresh",
-            "/api/auth/forgot-password",
-            "/api/auth/reset-password",
-            "/api/health",
-            "/api/actuator/health",
-            "/h2-console",
-            "/swagger-ui",
-            "/v3/api-docs",
-            "/favicon.ico"
-        };
-        
-        // Check exact matches and prefixes
-        for (String publicPath : publicPaths) {
-            if (path.equals(publicPath) || path.startsWith(publicPath + "/")) {
-                return true;
-            }
-        }
-        
         // Allow OPTIONS requests for CORS preflight
-        if ("OPTIONS".equalsIgnoreCase(method)) {
+        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
             return true;
         }
         
-        // Allow static resources
-        if (path.startsWith("/static/") || 
-            path.startsWith("/css/") || 
-            path.startsWith("/js/") || 
-            path.startsWith("/images/") ||
-            path.endsWith(".css") ||
-            path.endsWith(".js") ||
-            path.endsWith(".png") ||
-            path.endsWith(".jpg") ||
-            path.endsWith(".jpeg") ||
-            path.endsWith(".gif") ||
-            path.endsWith(".ico")) {
-            return true;
-        }
-        
-        return false;
+        // Skip authentication for public endpoints
+        return publicRouteMatcher.isPublic(request);
     }
 
     /**
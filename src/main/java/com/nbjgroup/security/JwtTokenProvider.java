@@ -1,18 +1,33 @@
 package com.nbjgroup.security;
 
+import com.nbjgroup.entity.RefreshTokenFamily;
+import com.nbjgroup.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 import java.util.function.Function;
 
 /**
@@ -33,6 +48,97 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration}")
     private long jwtRefreshExpirationInMs;
 
+    @Value("${app.jwt.stateless-auth:false}")
+    private boolean statelessAuth;
+
+    @Value("${app.jwt.key-id:primary}")
+    private String jwtKeyId;
+
+    @Value("${app.jwt.verification-keys:}")
+    private String jwtVerificationKeys;
+
+    @Value("${app.jwt.key-file:}")
+    private String jwtKeyFile;
+
+    @Value("${app.jwt.unkeyed-tokens-until:}")
+    private String unkeyedTokensUntil;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    private volatile KeySet keySet;
+    private long keyFileModified;
+    private JwtParser jwtParser;
+    private SecretKey unkeyedTokenKey;
+    private long unkeyedTokensUntilMillis;
+
+    /**
+     * Build the signing key, the set of verification keys and the shared parser at startup.
+     * Verification keys are given as comma-separated keyId:secret pairs, so tokens signed with a
+     * previous secret keep validating while the fleet moves to a new one. When app.jwt.key-file
+     * is set, its key-id, secret and verification-keys entries override the configured ones.
+     * Tokens issued before key ids were introduced carry none; they are verified with app.jwt.secret
+     * until app.jwt.unkeyed-tokens-until, by default one refresh expiration after startup.
+     */
+    @PostConstruct
+    public void init() {
+        if (jwtKeyFile.isBlank()) {
+            keySet = buildKeySet(jwtKeyId, jwtSecret, jwtVerificationKeys);
+        } else {
+            try {
+                Path path = Path.of(jwtKeyFile);
+                keyFileModified = Files.getLastModifiedTime(path).toMillis();
+                keySet = readKeyFile(path);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read JWT key file " + jwtKeyFile, e);
+            }
+        }
+
+        unkeyedTokenKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        unkeyedTokensUntilMillis = unkeyedTokensUntil.isBlank()
+                ? System.currentTimeMillis() + jwtRefreshExpirationInMs
+                : Instant.parse(unkeyedTokensUntil).toEpochMilli();
+
+        // JwtParser is immutable and thread-safe; the resolver picks the key by the kid header
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+
+        logger.info("JWT signing key '{}' initialised with {} verification key(s)",
+                keySet.signingKeyId(), keySet.verificationKeys().size());
+    }
+
+    /**
+     * Re-read the key file when it has changed, so keys can be rotated without a restart.
+     * A file that cannot be read or parsed leaves the current keys in place.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.key-reload-interval:60000}",
+               initialDelayString = "${app.jwt.key-reload-interval:60000}")
+    public void reloadKeys() {
+        if (jwtKeyFile.isBlank()) {
+            return;
+        }
+        try {
+            Path path = Path.of(jwtKeyFile);
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == keyFileModified) {
+                return;
+            }
+            keySet = readKeyFile(path);
+            keyFileModified = modified;
+            logger.info("JWT keys reloaded from {}: signing key '{}', {} verification key(s)",
+                    jwtKeyFile, keySet.signingKeyId(), keySet.verificationKeys().size());
+        } catch (Exception e) {
+            logger.warn("Reloading JWT keys from {} failed, keeping signing key '{}'",
+                    jwtKeyFile, keySet.signingKeyId(), e);
+        }
+    }
+
     /**
      * Generate JWT token from authentication
      */
@@ -50,13 +156,26 @@ public class JwtTokenProvider {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "access");
         
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(expiryDate));
+    }
+
+    /**
+     * Generate access token for a user.
+     * In stateless mode the role and active flag are embedded so the filter needs no user lookup.
+     */
+    public String generateAccessToken(User user) {
+        if (!statelessAuth) {
+            return generateTokenFromUsername(user.getEmail());
+        }
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", user.getRole().name());
+        claims.put("active", Boolean.TRUE.equals(user.getIsActive()));
+        return generateTokenWithClaims(user.getEmail(), claims);
     }
 
     /**
@@ -68,13 +187,29 @@ public class JwtTokenProvider {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "refresh");
         
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(expiryDate));
+    }
+
+    /**
+     * Generate refresh token belonging to a refresh token family.
+     * The token id (jti) and family id (fid) let the server rotate and revoke it; every token
+     * of a family expires with the family.
+     */
+    public String generateRefreshToken(String username, String familyId, String tokenId, Date expiryDate) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("type", "refresh");
+        claims.put("fid", familyId);
+
+        return sign(Jwts.builder()
+                .setClaims(claims)
+                .setId(tokenId)
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(expiryDate));
     }
 
     /**
@@ -86,13 +221,11 @@ public class JwtTokenProvider {
         Map<String, Object> claims = new HashMap<>(extraClaims);
         claims.put("type", "access");
         
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
-                .compact();
+                .setExpiration(expiryDate));
     }
 
     /**
@@ -128,11 +261,32 @@ public class JwtTokenProvider {
      * Get all claims from JWT token
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Parse and verify a JWT token exactly once.
+     * Returns null if the token is malformed, expired, unsupported or has a bad signature.
+     */
+    public ParsedToken parseToken(String token) {
+        long start = System.nanoTime();
+        ParsedToken parsedToken = null;
+        try {
+            parsedToken = new ParsedToken(getAllClaimsFromToken(token));
+        } catch (MalformedJwtException e) {
+            // Bad tokens come from clients, not from a fault here; the parse metric counts them
+            logger.debug("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            logger.debug("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            logger.debug("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.debug("JWT claims string is empty: {}", e.getMessage());
+        } catch (Exception e) {
+            logger.debug("JWT token validation error: {}", e.getMessage());
+        }
+        authMetrics.recordTokenParse(System.nanoTime() - start, parsedToken != null);
+        return parsedToken;
     }
 
     /**
@@ -166,37 +320,25 @@ public class JwtTokenProvider {
      * Validate JWT token
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = getUsernameFromToken(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-        } catch (Exception e) {
-            logger.error("Token validation failed: {}", e.getMessage());
-            return false;
-        }
+        ParsedToken parsedToken = parseToken(token);
+        return parsedToken != null && validateToken(parsedToken, userDetails);
+    }
+
+    /**
+     * Validate an already parsed JWT token against UserDetails
+     */
+    public boolean validateToken(ParsedToken parsedToken, UserDetails userDetails) {
+        return parsedToken.getSubject() != null
+                && parsedToken.getSubject().equals(userDetails.getUsername())
+                && !parsedToken.isExpired();
     }
 
     /**
      * Validate JWT token without UserDetails
      */
     public Boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return !isTokenExpired(token);
-        } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
-        } catch (Exception e) {
-            logger.error("JWT token validation error: {}", e.getMessage());
-        }
-        return false;
+        ParsedToken parsedToken = parseToken(token);
+        return parsedToken != null && !parsedToken.isExpired();
     }
 
     /**
@@ -236,11 +378,68 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Get signing key for JWT
+     * Get verification key for a key id.
+     * Every token this service issues carries a key id; one without is only accepted while tokens
+     * issued before key ids were introduced may still be live.
+     */
+    private Key resolveVerificationKey(String keyId) {
+        if (keyId == null) {
+            if (System.currentTimeMillis() < unkeyedTokensUntilMillis) {
+                return unkeyedTokenKey;
+            }
+            throw new UnsupportedJwtException("JWT has no signing key id");
+        }
+        SecretKey key = keySet.verificationKeys().get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT signing key id: " + keyId);
+        }
+        return key;
+    }
+
+    /**
+     * Set the kid header and sign with the current key; both come from the same key set
+     */
+    private String sign(JwtBuilder builder) {
+        KeySet keys = keySet;
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, keys.signingKeyId())
+                .signWith(keys.signingKey(), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private KeySet readKeyFile(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return buildKeySet(properties.getProperty("key-id", jwtKeyId),
+                properties.getProperty("secret", jwtSecret),
+                properties.getProperty("verification-keys", jwtVerificationKeys));
+    }
+
+    private static KeySet buildKeySet(String keyId, String secret, String verificationKeys) {
+        SecretKey signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+
+        Map<String, SecretKey> keys = new HashMap<>();
+        if (verificationKeys != null && !verificationKeys.isBlank()) {
+            for (String entry : verificationKeys.split(",")) {
+                int separator = entry.indexOf(':');
+                if (separator <= 0) {
+                    throw new IllegalStateException("Invalid JWT verification key entry, expected keyId:secret");
+                }
+                String previousKeyId = entry.substring(0, separator).trim();
+                String previousSecret = entry.substring(separator + 1).trim();
+                keys.put(previousKeyId, Keys.hmacShaKeyFor(previousSecret.getBytes()));
+            }
+        }
+        keys.put(keyId, signingKey);
+        return new KeySet(keyId, signingKey, Collections.unmodifiableMap(keys));
+    }
+
+    /**
+     * Signing key and the keys accepted for verification, swapped together on reload
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    private record KeySet(String signingKeyId, SecretKey signingKey, Map<String, SecretKey> verificationKeys) {
     }
 
     /**
@@ -272,17 +471,42 @@ public class JwtTokenProvider {
         );
     }
 
+    /**
+     * Create token response for a user, embedding role claims in stateless mode.
+     * The refresh token is the first token of the given refresh token family.
+     */
+    public JwtTokenResponse createTokenResponse(User user, RefreshTokenFamily family) {
+        String accessToken = generateAccessToken(user);
+        String refreshToken = generateRefreshToken(user.getEmail(), family.getId(), family.getCurrentTokenId(),
+                Date.from(family.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()));
+
+        return new JwtTokenResponse(
+            accessToken,
+            refreshToken,
+            "Bearer",
+            jwtExpirationInMs / 1000, // Convert to seconds
+            jwtRefreshExpirationInMs / 1000 // Convert to seconds
+        );
+    }
+
+    /**
+     * Check if stateless (claims-carry-roles) authentication is enabled
+     */
+    public boolean isStatelessAuth() {
+        return statelessAuth;
+    }
+
     /**
      * Refresh access token using refresh token
      */
     public String refreshAccessToken(String refreshToken) {
         try {
-            if (!isRefreshToken(refreshToken) || isTokenExpired(refreshToken)) {
+            ParsedToken parsedToken = parseToken(refreshToken);
+            if (parsedToken == null || !parsedToken.isRefreshToken() || parsedToken.isExpired()) {
                 throw new IllegalArgumentException("Invalid or expired refresh token");
             }
-            
-            String username = getUsernameFromToken(refreshToken);
-            return generateTokenFromUsername(username);
+
+            return generateTokenFromUsername(parsedToken.getSubject());
         } catch (Exception e) {
             logger.error("Failed to refresh access token: {}", e.getMessage());
             throw new IllegalArgumentException("Token refresh failed", e);
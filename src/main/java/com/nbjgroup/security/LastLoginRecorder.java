@@ -0,0 +1,81 @@
+package com.nbjgroup.security;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for last-login timestamps.
+ * Logins only record the timestamp in memory; a scheduled job writes all pending
+ * timestamps in one JDBC batch, and a final flush runs on shutdown.
+ */
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final String UPDATE_LAST_LOGIN_SQL = "UPDATE users SET updated_at = ? WHERE email = ?";
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.security.last-login.max-pending:10000}")
+    private int maxPending;
+
+    /**
+     * Record a login; repeated logins by the same user before a flush collapse into one update.
+     * When the buffer is full, timestamps for new users are dropped rather than blocking the login.
+     */
+    public void record(String email) {
+        if (pending.size() >= maxPending && !pending.containsKey(email)) {
+            logger.warn("Last login buffer full, dropping update for user: {}", email);
+            return;
+        }
+        pending.put(email, LocalDateTime.now());
+    }
+
+    /**
+     * Write all pending timestamps in a single batch
+     */
+    @Scheduled(fixedDelayString = "${app.security.last-login.flush-interval:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        for (String email : pending.keySet()) {
+            LocalDateTime loginTime = pending.remove(email);
+            if (loginTime != null) {
+                batch.add(new Object[]{Timestamp.valueOf(loginTime), email});
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN_SQL, batch);
+            logger.debug("Flushed {} last login update(s)", batch.size());
+        } catch (DataAccessException e) {
+            logger.error("Failed to flush {} last login update(s)", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
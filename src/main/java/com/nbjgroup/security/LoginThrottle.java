@@ -0,0 +1,156 @@
+package com.nbjgroup.security;
+
+import com.nbjgroup.util.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Brute-force protection for logins.
+ * Failed attempts are counted per email and per client IP over a sliding window, approximated
+ * from the current and previous fixed windows. Counters live in a fixed-size, count-min style
+ * table: each key is hashed into one slot per row and the smallest row count is used, so memory
+ * stays bounded and hash collisions can only over-count. Every slot holds one packed
+ * (window, count) word per window parity and is updated with compare-and-set, never a lock.
+ * Each row hashes the key's UTF-8 bytes with SipHash under its own random key, drawn at startup,
+ * so a client cannot pick an email that shares a victim's slots and lock the victim out.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private static final int ROWS = 2;
+    private static final byte EMAIL_KEY = 'e';
+    private static final byte IP_KEY = 'i';
+
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxFailuresPerEmail;
+    private final int maxFailuresPerIp;
+    private final int slotMask;
+    private final AtomicLongArray buckets;
+    /**
+     * Two SipHash key words per row
+     */
+    private final long[] rowKeys = new long[ROWS * 2];
+
+    public LoginThrottle(@Value("${app.security.login-throttle.enabled:true}") boolean enabled,
+                         @Value("${app.security.login-throttle.window:900000}") long windowMs,
+                         @Value("${app.security.login-throttle.max-failures-per-email:5}") int maxFailuresPerEmail,
+                         @Value("${app.security.login-throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                         @Value("${app.security.login-throttle.slots:65536}") int slots) {
+        int slotsPerRow = Integer.highestOneBit(Math.max(slots - 1, 1)) << 1;
+
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.slotMask = slotsPerRow - 1;
+        this.buckets = new AtomicLongArray(ROWS * slotsPerRow * 2);
+
+        SecureRandom random = new SecureRandom();
+        for (int i = 0; i < rowKeys.length; i++) {
+            rowKeys[i] = random.nextLong();
+        }
+
+        logger.info("Login throttle {} ({} failures per email, {} per IP, {} ms window, {} slots per row)",
+                enabled ? "enabled" : "disabled", maxFailuresPerEmail, maxFailuresPerIp, windowMs, slotsPerRow);
+    }
+
+    /**
+     * Check if a login attempt must be rejected without verifying the password
+     */
+    public boolean isBlocked(String email, String clientIp) {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        return estimate(keyBytes(EMAIL_KEY, normalizeEmail(email)), now) >= maxFailuresPerEmail
+                || estimate(keyBytes(IP_KEY, clientIp), now) >= maxFailuresPerIp;
+    }
+
+    /**
+     * Record a failed login attempt
+     */
+    public void recordFailure(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        increment(keyBytes(EMAIL_KEY, normalizeEmail(email)), now);
+        increment(keyBytes(IP_KEY, clientIp), now);
+    }
+
+    /**
+     * Seconds until the current window ends, for the Retry-After header
+     */
+    public long getRetryAfterSeconds() {
+        long remainingMs = windowMs - System.currentTimeMillis() % windowMs;
+        return Math.max(1, (remainingMs + 999) / 1000);
+    }
+
+    /**
+     * Sliding window estimate: the previous window's count weighted by how much of it still overlaps
+     */
+    private long estimate(byte[] key, long now) {
+        long window = now / windowMs;
+        double previousWeight = 1.0 - (double) (now % windowMs) / windowMs;
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            int base = slotIndex(key, row);
+            long current = countIn(buckets.get(base + (int) (window & 1)), window);
+            long previous = countIn(buckets.get(base + (int) ((window - 1) & 1)), window - 1);
+            estimate = Math.min(estimate, current + (long) Math.ceil(previous * previousWeight));
+        }
+        return estimate;
+    }
+
+    private void increment(byte[] key, long now) {
+        long window = now / windowMs;
+        long windowTag = window & 0xFFFFFFFFL;
+
+        for (int row = 0; row < ROWS; row++) {
+            int index = slotIndex(key, row) + (int) (window & 1);
+            long packed;
+            long updated;
+            do {
+                packed = buckets.get(index);
+                // A bucket left over from an older window with the same parity starts again from zero
+                long count = (packed >>> 32) == windowTag ? packed & 0xFFFFFFFFL : 0;
+                updated = (windowTag << 32) | Math.min(count + 1, 0xFFFFFFFFL);
+            } while (!buckets.compareAndSet(index, packed, updated));
+        }
+    }
+
+    private static long countIn(long packed, long window) {
+        return (packed >>> 32) == (window & 0xFFFFFFFFL) ? packed & 0xFFFFFFFFL : 0;
+    }
+
+    private int slotIndex(byte[] key, int row) {
+        int slot = (int) (Hashing.sipHash24(rowKeys[row * 2], rowKeys[row * 2 + 1], key) & slotMask);
+        return (row * (slotMask + 1) + slot) * 2;
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * UTF-8 bytes of the key behind a one-byte prefix, so an email and an IP never share slots by design
+     */
+    private static byte[] keyBytes(byte kind, String key) {
+        byte[] utf8 = (key == null ? "" : key).getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = new byte[utf8.length + 1];
+        bytes[0] = kind;
+        System.arraycopy(utf8, 0, bytes, 1, utf8.length);
+        return bytes;
+    }
+}
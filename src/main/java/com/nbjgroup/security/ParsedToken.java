@@ -0,0 +1,116 @@
+package com.nbjgroup.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * A JWT that has already been parsed and signature-verified by {@link JwtTokenProvider}.
+ * Carries the decoded claims so callers never need to parse the same token twice.
+ */
+public final class ParsedToken {
+
+    private final Claims claims;
+    private final String tokenId;
+    private final String familyId;
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final String type;
+    private final String role;
+    private final Boolean active;
+
+    ParsedToken(Claims claims) {
+        this.claims = claims;
+        this.tokenId = claims.getId();
+        this.familyId = claims.get("fid", String.class);
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+        this.type = claims.get("type", String.class);
+        this.role = claims.get("role", String.class);
+        this.active = claims.get("active", Boolean.class);
+    }
+
+    /**
+     * Check if the token has expired
+     */
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+
+    /**
+     * Check if this is an access token
+     */
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+
+    /**
+     * Check if this is a refresh token
+     */
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    /**
+     * Check if the token carries the role claims needed for stateless authentication
+     */
+    public boolean hasRoleClaims() {
+        return role != null && active != null;
+    }
+
+    /**
+     * Get remaining time until expiration in milliseconds
+     */
+    public long getRemainingTime() {
+        if (expiration == null) {
+            return 0;
+        }
+        return expiration.getTime() - System.currentTimeMillis();
+    }
+
+    /**
+     * Check if the token needs refresh (expires within 5 minutes)
+     */
+    public boolean shouldRefresh() {
+        return getRemainingTime() < 300000; // 5 minutes in milliseconds
+    }
+
+    // Getters
+    public Claims getClaims() {
+        return claims;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+}
@@ -0,0 +1,72 @@
+package com.nbjgroup.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-evicting cache of authenticated principals keyed by email.
+ * Lets the JWT filter skip the user lookup for tokens it has recently seen.
+ * Cache statistics are published as cache.* meters with cache=principals, plus a hit ratio gauge.
+ */
+@Component
+public class PrincipalCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${app.security.principal-cache.ttl:60000}") long ttlInMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlInMs, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, "principals", Tags.empty()).bindTo(registry);
+        Gauge.builder("auth.principal.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of principal lookups served from the cache")
+                .register(registry);
+    }
+
+    /**
+     * Get the cached principal for an email, loading it on a miss.
+     * Exceptions thrown by the loader are propagated and nothing is cached.
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        return cache.get(email, loader);
+    }
+
+    /**
+     * Drop the cached principal for an email
+     */
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+            logger.debug("Invalidated cached principal for user: {}", email);
+        }
+    }
+
+    /**
+     * Drop all cached principals
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
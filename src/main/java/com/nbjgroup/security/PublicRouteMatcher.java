@@ -0,0 +1,133 @@
+package com.nbjgroup.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single route classification table for unauthenticated access, compiled into a prefix trie at startup.
+ * Paths are relative to the servlet context path and match the route itself and everything below it,
+ * like an Ant "/route/**" pattern; the longest matching route decides. Both JwtAuthenticationFilter
+ * and SecurityConfig read from this table, and a lookup walks the request URI in place without allocating.
+ */
+@Component
+public class PublicRouteMatcher {
+
+    /**
+     * How a route may be accessed without authentication
+     */
+    public enum Access {
+        /** Permitted and skipped by the JWT filter entirely */
+        PUBLIC,
+        /** Permitted, but a token is still processed if present, e.g. /auth/me */
+        PERMIT_ALL
+    }
+
+    private static final List<Route> ROUTES = List.of(
+        new Route("/auth", Access.PERMIT_ALL),
+        new Route("/auth/login", Access.PUBLIC),
+        new Route("/auth/register", Access.PUBLIC),
+        new Route("/auth/refresh", Access.PUBLIC),
+        new Route("/auth/forgot-password", Access.PUBLIC),
+        new Route("/auth/reset-password", Access.PUBLIC),
+        new Route("/health", Access.PUBLIC),
+        new Route("/actuator/health", Access.PUBLIC),
+        new Route("/h2-console", Access.PUBLIC),
+        new Route("/swagger-ui", Access.PUBLIC),
+        new Route("/v3/api-docs", Access.PUBLIC),
+        new Route("/favicon.ico", Access.PUBLIC),
+        new Route("/static", Access.PUBLIC),
+        new Route("/css", Access.PUBLIC),
+        new Route("/js", Access.PUBLIC),
+        new Route("/images", Access.PUBLIC)
+    );
+
+    private final Node root = new Node();
+
+    public PublicRouteMatcher() {
+        for (Route route : ROUTES) {
+            Node node = root;
+            for (int i = 0; i < route.path().length(); i++) {
+                node = node.childOrCreate(route.path().charAt(i));
+            }
+            node.access = route.access();
+        }
+    }
+
+    /**
+     * Classify a request, or return null if it requires authentication
+     */
+    public Access classify(HttpServletRequest request) {
+        return classify(request.getRequestURI(), request.getContextPath().length());
+    }
+
+    /**
+     * Classify the part of the path starting at offset, or return null if it requires authentication
+     */
+    Access classify(String path, int offset) {
+        Access match = null;
+        Node node = root;
+        int i = offset;
+        while (node != null) {
+            // A route matches at the end of the path or at a segment boundary
+            if (node.access != null && (i == path.length() || path.charAt(i) == '/')) {
+                match = node.access;
+            }
+            if (i == path.length()) {
+                break;
+            }
+            node = node.child(path.charAt(i++));
+        }
+        return match;
+    }
+
+    /**
+     * Check if the JWT filter can skip the request entirely
+     */
+    public boolean isPublic(HttpServletRequest request) {
+        return classify(request) == Access.PUBLIC;
+    }
+
+    /**
+     * Request matcher for every route that does not require authentication
+     */
+    public RequestMatcher permitAllMatcher() {
+        return request -> classify(request) != null;
+    }
+
+    private record Route(String path, Access access) {}
+
+    /**
+     * Trie node; children are kept in small parallel arrays and scanned linearly
+     */
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private Access access;
+
+        Node child(char c) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char c) {
+            Node existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node();
+            labels = Arrays.copyOf(labels, labels.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            labels[labels.length - 1] = c;
+            children[children.length - 1] = created;
+            return created;
+        }
+    }
+}
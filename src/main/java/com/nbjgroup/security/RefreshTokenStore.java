@@ -0,0 +1,167 @@
+package com.nbjgroup.security;
+
+import com.nbjgroup.entity.RefreshTokenFamily;
+import com.nbjgroup.repository.RefreshTokenFamilyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side store for refresh token families.
+ * A family expires a fixed app.jwt.refresh-expiration after login, however often it is used.
+ * Each refresh rotates the family's current token id with a conditional update; replaying a
+ * superseded token revokes the whole family. Revoked family ids are also kept in memory, so
+ * revoked tokens are turned away without a database round trip. A scheduled compaction drops
+ * expired families and re-reads revocations made by other nodes.
+ */
+@Component
+public class RefreshTokenStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenStore.class);
+
+    /**
+     * Revoked family id to the time its last token expires, in epoch milliseconds
+     */
+    private final Map<String, Long> revokedFamilies = new ConcurrentHashMap<>();
+
+    @Autowired
+    private RefreshTokenFamilyRepository familyRepository;
+
+    @Value("${app.jwt.refresh-expiration}")
+    private long jwtRefreshExpirationInMs;
+
+    /**
+     * Start a new family for a login and return it with its first token id
+     */
+    @Transactional
+    public RefreshTokenFamily startFamily(String email) {
+        RefreshTokenFamily family = new RefreshTokenFamily(
+                UUID.randomUUID().toString(),
+                email,
+                UUID.randomUUID().toString(),
+                LocalDateTime.now().plus(Duration.ofMillis(jwtRefreshExpirationInMs)));
+        return familyRepository.save(family);
+    }
+
+    /**
+     * Rotate a family from the presented token id to a new one.
+     * Returns the new token id, or null if the token was revoked, superseded or unknown.
+     */
+    @Transactional
+    public String rotate(String familyId, String tokenId) {
+        if (familyId == null || tokenId == null) {
+            return null;
+        }
+        if (isRevoked(familyId)) {
+            logger.warn("Refresh rejected - token family {} is revoked", familyId);
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String newTokenId = UUID.randomUUID().toString();
+        int updated = familyRepository.rotate(familyId, tokenId, newTokenId, now);
+        if (updated == 1) {
+            return newTokenId;
+        }
+
+        // The token was not current: either the family is gone, or an old token is being replayed
+        RefreshTokenFamily family = familyRepository.findById(familyId).orElse(null);
+        if (family != null && !Boolean.TRUE.equals(family.getRevoked()) && family.getExpiresAt().isAfter(now)) {
+            logger.warn("Refresh token reuse detected for user {}, revoking token family {}",
+                    family.getUserEmail(), familyId);
+            familyRepository.revoke(familyId);
+            markRevoked(family);
+        }
+        return null;
+    }
+
+    /**
+     * Revoke a single family, e.g. on logout
+     */
+    @Transactional
+    public void revokeFamily(String familyId) {
+        if (familyId == null) {
+            return;
+        }
+        familyRepository.findById(familyId).ifPresent(family -> {
+            familyRepository.revoke(familyId);
+            markRevoked(family);
+            logger.info("Revoked refresh token family {} for user {}", familyId, family.getUserEmail());
+        });
+    }
+
+    /**
+     * Revoke every live family of a user
+     */
+    @Transactional
+    public void revokeAllForUser(String email) {
+        if (email == null) {
+            return;
+        }
+        List<RefreshTokenFamily> families = familyRepository.findActiveByUserEmail(email, LocalDateTime.now());
+        for (RefreshTokenFamily family : families) {
+            familyRepository.revoke(family.getId());
+            markRevoked(family);
+        }
+        if (!families.isEmpty()) {
+            logger.info("Revoked {} refresh token famil(ies) for user {}", families.size(), email);
+        }
+    }
+
+    /**
+     * Check the in-memory index for a revoked family
+     */
+    public boolean isRevoked(String familyId) {
+        return revokedFamilies.containsKey(familyId);
+    }
+
+    /**
+     * Load revoked families once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        compact();
+    }
+
+    /**
+     * Delete expired families and rebuild the revocation index from the database
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-compaction-interval:3600000}",
+               initialDelayString = "${app.jwt.refresh-compaction-interval:3600000}")
+    public void compact() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int deleted = familyRepository.deleteExpired(now);
+
+            long nowMillis = System.currentTimeMillis();
+            revokedFamilies.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+            for (RefreshTokenFamily family : familyRepository.findRevokedUnexpired(now)) {
+                markRevoked(family);
+            }
+
+            logger.debug("Refresh token compaction removed {} expired famil(ies), {} revoked in index",
+                    deleted, revokedFamilies.size());
+        } catch (Exception e) {
+            logger.error("Refresh token compaction failed", e);
+        }
+    }
+
+    private void markRevoked(RefreshTokenFamily family) {
+        long expiresAt = family.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        revokedFamilies.put(family.getId(), expiresAt);
+    }
+}
@@ -0,0 +1,133 @@
+package com.nbjgroup.security;
+
+import com.nbjgroup.entity.UserRevocation;
+import com.nbjgroup.repository.UserRevocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * List of users whose outstanding access tokens must no longer be honoured.
+ * Used by stateless authentication, where the filter never looks the user up in the database.
+ * Revocations are stored in the user_revocations table and kept in memory for the filter; every
+ * node re-reads the table each app.jwt.revocation-poll-interval, so a revocation made elsewhere or
+ * before a restart applies within one interval. An entry only needs to outlive the access tokens
+ * issued before it, so it is dropped once the access token lifetime has passed.
+ */
+@Component
+public class UserRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserRevocationList.class);
+
+    /**
+     * User email to the time of revocation, in epoch milliseconds
+     */
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserRevocationRepository revocationRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.jwt.expiration}")
+    private long jwtExpirationInMs;
+
+    public UserRevocationList(PlatformTransactionManager transactionManager) {
+        // Recorded in its own transaction, so a failed insert cannot poison the caller's
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Revoke every token issued to this user up to now
+     */
+    public void revoke(String email) {
+        if (email == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        revokedAt.merge(email, now, Math::max);
+
+        LocalDateTime revoked = toLocalDateTime(now);
+        LocalDateTime expires = toLocalDateTime(now + jwtExpirationInMs);
+        try {
+            try {
+                persist(email, revoked, expires);
+            } catch (DataIntegrityViolationException e) {
+                // Another node inserted the same user first; the update now finds the row
+                persist(email, revoked, expires);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not store revocation for user {}; other nodes will not see it", email, e);
+        }
+        logger.info("Revoked outstanding tokens for user: {}", email);
+    }
+
+    /**
+     * Check if a token issued to this user at the given time has been revoked
+     */
+    public boolean isRevoked(String email, Date issuedAt) {
+        Long timestamp = revokedAt.get(email);
+        if (timestamp == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() <= timestamp;
+    }
+
+    /**
+     * Load stored revocations once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Drop expired revocations and pick up those made by other nodes
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation-poll-interval:10000}",
+               initialDelayString = "${app.jwt.revocation-poll-interval:10000}")
+    public void refresh() {
+        try {
+            long nowMillis = System.currentTimeMillis();
+            LocalDateTime now = toLocalDateTime(nowMillis);
+            revocationRepository.deleteExpired(now);
+
+            revokedAt.values().removeIf(timestamp -> timestamp < nowMillis - jwtExpirationInMs);
+            for (UserRevocation revocation : revocationRepository.findByExpiresAtAfter(now)) {
+                long timestamp = revocation.getRevokedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                revokedAt.merge(revocation.getUserEmail(), timestamp, Math::max);
+            }
+        } catch (Exception e) {
+            logger.error("Refreshing user revocations failed", e);
+        }
+    }
+
+    private void persist(String email, LocalDateTime revoked, LocalDateTime expires) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (revocationRepository.update(email, revoked, expires) == 0) {
+                revocationRepository.saveAndFlush(new UserRevocation(email, revoked, expires));
+            }
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,374 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.entity.AttachmentBlob;
+import com.nbjgroup.entity.MaintenanceRequestFile;
+import com.nbjgroup.repository.AttachmentBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed, deduplicated attachment store.
+ * Uploads are written in a single streaming pass while a SHA-256 is computed, the content type is
+ * sniffed from the leading magic bytes and the size limit is enforced, so an oversized upload is cut
+ * off as soon as it crosses the limit. The finished file becomes the blob for its hash under
+ * blobs/<first two hex digits>/<hash>, or is discarded if that blob already exists, in which case
+ * only its reference count grows. Reference changes hold the blob's row lock while the file is moved
+ * into place or deleted, so nodes sharing the upload directory cannot lose a blob that is still referenced.
+ */
+@Service
+public class AttachmentStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentStorageService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    static final int SNIFF_LENGTH = 16;
+    private static final int MAX_CONTENT_TYPE_LENGTH = 100;
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    @Autowired
+    private AttachmentBlobRepository blobRepository;
+
+    @Autowired
+    private DatabaseSupport databaseSupport;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.upload.dir:${user.home}/nbj-uploads}")
+    private String uploadDir;
+
+    @Value("${app.file.max-size:10485760}")
+    private long maxFileSize;
+
+    /**
+     * Result of storing one upload; deduplicated is true when an existing blob was reused
+     */
+    public record StoredFile(String fileName, Path path, long size, String contentHash, String contentType,
+                             boolean deduplicated) {
+
+        static StoredFile of(AttachmentBlob blob, boolean deduplicated) {
+            return new StoredFile(blob.getContentHash(), Paths.get(blob.getStoragePath()), blob.getSize(),
+                    blob.getContentHash(), blob.getContentType(), deduplicated);
+        }
+    }
+
+    /**
+     * Thrown when an upload exceeds app.file.max-size
+     */
+    public static class FileTooLargeException extends IOException {
+        public FileTooLargeException(long maxFileSize) {
+            super("File exceeds the maximum size of " + maxFileSize + " bytes");
+        }
+    }
+
+    public AttachmentStorageService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Stream an upload into the blob store and take a reference to its blob.
+     * declaredContentType is only used, normalized, when the content type cannot be sniffed.
+     */
+    public StoredFile store(InputStream in, String originalFilename, String declaredContentType) throws IOException {
+        Path partial = newTempFile();
+
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] head = new byte[SNIFF_LENGTH];
+        int headLength = 0;
+        long size = 0;
+
+        try (OutputStream out = Files.newOutputStream(partial, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxFileSize) {
+                    throw new FileTooLargeException(maxFileSize);
+                }
+                if (headLength < SNIFF_LENGTH) {
+                    int copied = Math.min(read, SNIFF_LENGTH - headLength);
+                    System.arraycopy(buffer, 0, head, headLength, copied);
+                    headLength += copied;
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        String contentHash = HexFormat.of().formatHex(digest.digest());
+        String contentType = sniffContentType(head, headLength, originalFilename, declaredContentType);
+        return adopt(partial, contentHash, size, contentType);
+    }
+
+    /**
+     * Create an empty temporary file on the same file system as the blobs, for adopt to move into place
+     */
+    public Path newTempFile() throws IOException {
+        Path tempDirectory = blobRoot().resolve("tmp");
+        Files.createDirectories(tempDirectory);
+        return Files.createFile(tempDirectory.resolve(UUID.randomUUID() + ".part"));
+    }
+
+    /**
+     * Turn a completely written temporary file into the blob for its hash and take a reference to it.
+     * The temporary file is moved or deleted either way.
+     */
+    public StoredFile adopt(Path partial, String contentHash, long size, String contentType) throws IOException {
+        Path target = blobPath(contentHash);
+        try {
+            return transactionTemplate.execute(status -> {
+                // The blob row stays locked until commit, so no other node can release the blob meanwhile
+                int references = takeReference(contentHash, target, size, contentType);
+                try {
+                    if (references == 1 || !Files.exists(target)) {
+                        Files.createDirectories(target.getParent());
+                        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        logger.debug("Stored new blob {} ({} bytes, {})", contentHash, size, contentType);
+                    } else {
+                        Files.deleteIfExists(partial);
+                        logger.debug("Deduplicated upload against blob {}", contentHash);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                AttachmentBlob blob = blobRepository.findById(contentHash)
+                        .orElseThrow(() -> new IllegalStateException("Blob disappeared: " + contentHash));
+                return StoredFile.of(blob, references > 1);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            deleteQuietly(partial);
+        }
+    }
+
+    /**
+     * Take another reference to an already stored blob, so a client that has already uploaded the
+     * content can skip sending the bytes again. Callers must check that the client may access an
+     * attachment with this hash. Empty if no such blob exists.
+     */
+    public Optional<StoredFile> attachExisting(String contentHash) {
+        String normalized = normalizeContentHash(contentHash);
+        if (normalized == null) {
+            return Optional.empty();
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (blobRepository.addReference(normalized) == 0) {
+                return Optional.empty();
+            }
+            Optional<AttachmentBlob> blob = blobRepository.findById(normalized)
+                    .filter(existing -> Files.exists(Paths.get(existing.getStoragePath())));
+            if (blob.isEmpty()) {
+                status.setRollbackOnly();
+            }
+            return blob.map(existing -> StoredFile.of(existing, true));
+        });
+    }
+
+    /**
+     * Drop the reference held by a deleted attachment, removing the blob with its last reference.
+     * Files stored before the blob store existed belong to a single attachment and are deleted directly.
+     */
+    public void release(String contentHash, String filePath) {
+        try {
+            if (contentHash == null || !Paths.get(filePath).equals(blobPath(contentHash))) {
+                Files.deleteIfExists(Paths.get(filePath));
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status ->
+                    blobRepository.findForUpdate(contentHash).ifPresent(blob -> {
+                        if (blob.getReferenceCount() > 1) {
+                            blob.setReferenceCount(blob.getReferenceCount() - 1);
+                            return;
+                        }
+                        blobRepository.delete(blob);
+                        blobRepository.flush();
+                        // Still under the row lock, so no other node can store this blob again until commit
+                        deleteQuietly(blobPath(contentHash));
+                        logger.debug("Deleted unreferenced blob {}", contentHash);
+                    }));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not release file: {}", filePath, e);
+        }
+    }
+
+    /**
+     * Release every attachment of a batch, e.g. after the rows were deleted or failed to save
+     */
+    public void releaseAll(Collection<MaintenanceRequestFile> files) {
+        for (MaintenanceRequestFile file : files) {
+            release(file.getContentHash(), file.getFilePath());
+        }
+    }
+
+    /**
+     * Lower-case SHA-256 hex digest, or null if the value is not one
+     */
+    public static String normalizeContentHash(String contentHash) {
+        String normalized = contentHash == null ? "" : contentHash.trim().toLowerCase(Locale.ROOT);
+        return SHA256_HEX.matcher(normalized).matches() ? normalized : null;
+    }
+
+    /**
+     * Add a reference to the blob row for a hash, inserting it if needed, and return the new count
+     */
+    private int takeReference(String contentHash, Path target, long size, String contentType) {
+        if (databaseSupport.isPostgreSql()) {
+            return blobRepository.upsertReference(contentHash, target.toString(), size, contentType);
+        }
+        // Databases without ON CONFLICT (H2 in the dev profile): a concurrent first insert fails on the key
+        if (blobRepository.addReference(contentHash) > 0) {
+            return blobRepository.findById(contentHash).map(AttachmentBlob::getReferenceCount).orElse(1);
+        }
+        blobRepository.saveAndFlush(new AttachmentBlob(contentHash, target.toString(), size, contentType));
+        return 1;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete file: {}", path, e);
+        }
+    }
+
+    private Path blobRoot() {
+        return Paths.get(uploadDir, "blobs");
+    }
+
+    private Path blobPath(String contentHash) {
+        return blobRoot().resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+
+    /**
+     * Identify common attachment formats by their magic bytes
+     */
+    static String sniffContentType(byte[] head, int length, String originalFilename, String declaredContentType) {
+        if (startsWith(head, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(head, length, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        if (length >= 12 && startsWith(head, length, 'R', 'I', 'F', 'F')) {
+            String format = new String(head, 8, 4, StandardCharsets.US_ASCII);
+            switch (format) {
+                case "WEBP": return "image/webp";
+                case "WAVE": return "audio/wav";
+                case "AVI ": return "video/x-msvideo";
+                default: break;
+            }
+        }
+        if (length >= 12 && "ftyp".equals(new String(head, 4, 4, StandardCharsets.US_ASCII))) {
+            String brand = new String(head, 8, 4, StandardCharsets.US_ASCII);
+            if (brand.startsWith("heic") || brand.startsWith("heix") || brand.startsWith("mif1")) {
+                return "image/heic";
+            }
+            return brand.startsWith("qt") ? "video/quicktime" : "video/mp4";
+        }
+        if (startsWith(head, length, 'I', 'D', '3') || startsWith(head, length, 0xFF, 0xFB)) {
+            return "audio/mpeg";
+        }
+        if (startsWith(head, length, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)) {
+            return "application/msword";
+        }
+        if (startsWith(head, length, 'P', 'K', 0x03, 0x04)) {
+            // Office Open XML documents are zip archives; the extension tells them apart
+            String extension = extension(originalFilename);
+            switch (extension) {
+                case "docx": return "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+                case "xlsx": return "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+                default: return "application/zip";
+            }
+        }
+        return normalizeContentType(declaredContentType);
+    }
+
+    /**
+     * Reduce a client-declared content type to a bare, lower-case type/subtype that fits the
+     * content_type column; anything malformed, wildcarded or too long becomes application/octet-stream
+     */
+    static String normalizeContentType(String declaredContentType) {
+        if (declaredContentType == null || declaredContentType.isBlank()) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(declaredContentType);
+            String contentType = (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase(Locale.ROOT);
+            if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()
+                    || contentType.length() > MAX_CONTENT_TYPE_LENGTH) {
+                return DEFAULT_CONTENT_TYPE;
+            }
+            return contentType;
+        } catch (InvalidMediaTypeException e) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+    }
+
+    private static boolean startsWith(byte[] head, int length, int... magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String extension(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        return filename.substring(filename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
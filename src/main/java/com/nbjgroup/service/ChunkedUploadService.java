@@ -0,0 +1,436 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.entity.ChunkedUpload;
+import com.nbjgroup.repository.ChunkedUploadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resumable, chunked attachment uploads.
+ * A session declares the total size up front and receives chunks at explicit offsets; a chunk that
+ * breaks off keeps the bytes that arrived, and the client resumes from the offset the server reports.
+ * Chunks are streamed to a temporary file while the SHA-256 and sniffed content type are carried along,
+ * so committing normally never re-reads the file before handing it to the blob store. Each chunk is
+ * bounded by app.file.max-size and the whole file by app.file.chunked-upload.max-size.
+ * Sessions are stored in the chunked_uploads table and their files under the shared upload directory,
+ * so any node can continue an upload; a node that did not receive the earlier chunks rebuilds the hash
+ * from the file once. A writer holds a lease on the row while it appends, and within a node a retry
+ * waits at most app.file.chunked-upload.lock-timeout for a stalled chunk before it is turned away.
+ * Sessions expire after app.file.chunked-upload.session-ttl without activity.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private AttachmentStorageService storageService;
+
+    @Autowired
+    private ChunkedUploadRepository uploadRepository;
+
+    @Value("${app.file.chunked-upload.max-size:524288000}")
+    private long maxUploadSize;
+
+    @Value("${app.file.chunked-upload.session-ttl:86400000}")
+    private long sessionTtlMs;
+
+    @Value("${app.file.chunked-upload.max-sessions:1000}")
+    private int maxSessions;
+
+    @Value("${app.file.chunked-upload.max-sessions-per-owner:5}")
+    private int maxSessionsPerOwner;
+
+    @Value("${app.file.chunked-upload.lock-timeout:5000}")
+    private long lockTimeoutMs;
+
+    @Value("${app.file.chunked-upload.lease:300000}")
+    private long leaseMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Hash state of the sessions this node has written to; rebuilt from the file when it falls behind
+    private final Map<String, HashState> hashStates = new ConcurrentHashMap<>();
+
+    /**
+     * An upload in progress as last read from the database. The offset is updated while a chunk is
+     * written, so it can be read without waiting for the writer.
+     */
+    public static class UploadSession {
+        private final String id;
+        private final String fileName;
+        private final String declaredContentType;
+        private final long size;
+        private final Path path;
+        private volatile long offset;
+        private volatile long lastActivity;
+
+        UploadSession(ChunkedUpload upload) {
+            this.id = upload.getId();
+            this.fileName = upload.getFileName();
+            this.declaredContentType = upload.getDeclaredContentType();
+            this.size = upload.getSize();
+            this.path = Paths.get(upload.getTempPath());
+            this.offset = upload.getUploadOffset();
+            this.lastActivity = toEpochMilli(upload.getLastActivity());
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLastActivity() {
+            return lastActivity;
+        }
+    }
+
+    /**
+     * Incremental SHA-256 and leading bytes of a session's file, valid up to hashedOffset
+     */
+    private static class HashState {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final MessageDigest digest = AttachmentStorageService.sha256();
+        private final byte[] head = new byte[AttachmentStorageService.SNIFF_LENGTH];
+        private int headLength;
+        private long hashedOffset;
+
+        void update(byte[] buffer, int length) {
+            if (headLength < head.length) {
+                int copied = Math.min(length, head.length - headLength);
+                System.arraycopy(buffer, 0, head, headLength, copied);
+                headLength += copied;
+            }
+            digest.update(buffer, 0, length);
+            hashedOffset += length;
+        }
+
+        /**
+         * Re-read the file up to offset when other nodes wrote chunks this node has not seen
+         */
+        void catchUp(Path path, long offset) throws IOException {
+            if (hashedOffset == offset) {
+                return;
+            }
+            digest.reset();
+            headLength = 0;
+            hashedOffset = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(path)) {
+                while (hashedOffset < offset) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, offset - hashedOffset));
+                    if (read == -1) {
+                        throw new IOException("Upload file is shorter than its recorded offset: " + path);
+                    }
+                    update(buffer, read);
+                }
+            }
+        }
+    }
+
+    /**
+     * Thrown when a chunk does not start at the session's current offset
+     */
+    public static class OffsetMismatchException extends IllegalStateException {
+        private final long expectedOffset;
+
+        public OffsetMismatchException(long expectedOffset) {
+            super("Chunk must start at offset " + expectedOffset);
+            this.expectedOffset = expectedOffset;
+        }
+
+        public long getExpectedOffset() {
+            return expectedOffset;
+        }
+    }
+
+    /**
+     * Thrown when another request is still writing to the session
+     */
+    public static class UploadBusyException extends IllegalStateException {
+        private final long offset;
+
+        public UploadBusyException(long offset) {
+            super("Another chunk is still being received for this upload");
+            this.offset = offset;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    /**
+     * Thrown when a user already has the maximum number of uploads open
+     */
+    public static class TooManyUploadsException extends IllegalStateException {
+        public TooManyUploadsException(int limit) {
+            super("At most " + limit + " uploads may be in progress at once");
+        }
+    }
+
+    public long getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    public long getSessionTtlMs() {
+        return sessionTtlMs;
+    }
+
+    /**
+     * Open a session for a file of the given total size
+     */
+    public UploadSession start(Long requestId, String owner, String fileName, String contentType, long size)
+            throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Upload size must be positive");
+        }
+        if (size > maxUploadSize) {
+            throw new AttachmentStorageService.FileTooLargeException(maxUploadSize);
+        }
+        if (uploadRepository.countByOwnerEmail(owner) >= maxSessionsPerOwner) {
+            throw new TooManyUploadsException(maxSessionsPerOwner);
+        }
+        if (uploadRepository.count() >= maxSessions) {
+            throw new IllegalStateException("Too many uploads in progress");
+        }
+
+        Path path = storageService.newTempFile();
+        ChunkedUpload upload = new ChunkedUpload(UUID.randomUUID().toString(), requestId, owner, fileName,
+                contentType != null ? AttachmentStorageService.normalizeContentType(contentType) : null,
+                size, path.toString());
+        try {
+            upload = uploadRepository.save(upload);
+        } catch (RuntimeException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+        logger.debug("Started upload session {} for request {} ({} bytes)", upload.getId(), requestId, size);
+        return new UploadSession(upload);
+    }
+
+    /**
+     * Find a live session belonging to the given request and user
+     */
+    public Optional<UploadSession> find(String uploadId, Long requestId, String owner) {
+        return uploadRepository.findById(uploadId)
+                .filter(upload -> upload.getMaintenanceRequestId().equals(requestId)
+                        && upload.getOwnerEmail().equals(owner))
+                .map(UploadSession::new);
+    }
+
+    /**
+     * Append a chunk starting at offset and return the new offset.
+     * Bytes received before a broken connection are kept.
+     */
+    public long append(UploadSession session, long offset, InputStream in) throws IOException {
+        HashState state = lock(session);
+        try {
+            claimLease(session);
+            try {
+                if (offset != session.offset) {
+                    throw new OffsetMismatchException(session.offset);
+                }
+                state.catchUp(session.path, session.offset);
+                write(session, state, in);
+            } finally {
+                session.lastActivity = System.currentTimeMillis();
+                uploadRepository.recordProgress(session.id, nodeId, session.offset, LocalDateTime.now());
+            }
+            return session.offset;
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Finish a fully received upload and move it into the blob store
+     */
+    public AttachmentStorageService.StoredFile commit(UploadSession session) throws IOException {
+        HashState state = lock(session);
+        try {
+            claimLease(session);
+            try {
+                if (session.offset != session.size) {
+                    throw new OffsetMismatchException(session.offset);
+                }
+                state.catchUp(session.path, session.offset);
+            } catch (IOException | RuntimeException e) {
+                uploadRepository.recordProgress(session.id, nodeId, session.offset, LocalDateTime.now());
+                throw e;
+            }
+
+            if (uploadRepository.deleteLeased(session.id, nodeId) == 0) {
+                throw new IllegalStateException("Upload session is closed");
+            }
+            hashStates.remove(session.id);
+
+            String contentHash = HexFormat.of().formatHex(state.digest.digest());
+            String contentType = AttachmentStorageService.sniffContentType(
+                    state.head, state.headLength, session.fileName, session.declaredContentType);
+            logger.debug("Committing upload session {} ({} bytes, {})", session.id, session.size, contentType);
+            return storageService.adopt(session.path, contentHash, session.size, contentType);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Abandon a session and delete what was received
+     */
+    public void abort(UploadSession session) {
+        HashState state = lock(session);
+        try {
+            claimLease(session);
+            if (uploadRepository.deleteLeased(session.id, nodeId) > 0) {
+                deleteQuietly(session.path);
+            }
+            hashStates.remove(session.id);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    /**
+     * Remove sessions without activity for longer than the session TTL
+     */
+    @Scheduled(fixedDelayString = "${app.file.chunked-upload.cleanup-interval:3600000}")
+    public void expireSessions() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusNanos(TimeUnit.MILLISECONDS.toNanos(sessionTtlMs));
+        int expired = 0;
+        for (ChunkedUpload upload : uploadRepository.findIdle(cutoff, now)) {
+            // Another node may be expiring or resuming the same session; only the lease holder deletes it
+            if (uploadRepository.claimLease(upload.getId(), nodeId, leaseUntil(), now) > 0
+                    && uploadRepository.deleteLeased(upload.getId(), nodeId) > 0) {
+                deleteQuietly(Paths.get(upload.getTempPath()));
+                expired++;
+            }
+        }
+        // Forget hash state of sessions committed, aborted or expired elsewhere
+        hashStates.entrySet().removeIf(entry ->
+                !entry.getValue().lock.isLocked() && !uploadRepository.existsById(entry.getKey()));
+        if (expired > 0) {
+            logger.info("Expired {} idle upload session(s)", expired);
+        }
+    }
+
+    /**
+     * Take this node's lock for a session, waiting at most the lock timeout for a chunk in flight
+     */
+    private HashState lock(UploadSession session) {
+        HashState state = hashStates.computeIfAbsent(session.id, id -> new HashState());
+        try {
+            if (state.lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return state;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        throw new UploadBusyException(session.offset);
+    }
+
+    /**
+     * Take the session's lease and refresh the offset other nodes may have advanced
+     */
+    private void claimLease(UploadSession session) {
+        if (uploadRepository.claimLease(session.id, nodeId, leaseUntil(), LocalDateTime.now()) == 0) {
+            ChunkedUpload upload = uploadRepository.findById(session.id)
+                    .orElseThrow(() -> new IllegalStateException("Upload session is closed"));
+            throw new UploadBusyException(upload.getUploadOffset());
+        }
+        ChunkedUpload upload = uploadRepository.findById(session.id)
+                .orElseThrow(() -> new IllegalStateException("Upload session is closed"));
+        session.offset = upload.getUploadOffset();
+    }
+
+    private void write(UploadSession session, HashState state, InputStream in) throws IOException {
+        long chunkLimit = storageService.getMaxFileSize();
+        long chunkBytes = 0;
+        long renewAt = System.currentTimeMillis() + leaseMs / 2;
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        try (FileChannel channel = FileChannel.open(session.path, StandardOpenOption.WRITE)) {
+            // Drop anything a previously interrupted write left past the acknowledged offset
+            channel.truncate(session.offset);
+            channel.position(session.offset);
+
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                chunkBytes += read;
+                if (chunkBytes > chunkLimit) {
+                    throw new AttachmentStorageService.FileTooLargeException(chunkLimit);
+                }
+                if (session.offset + read > session.size) {
+                    throw new AttachmentStorageService.FileTooLargeException(session.size);
+                }
+                // Keep the lease for slow chunks, checked before writing in case a stalled read outlived it
+                if (System.currentTimeMillis() >= renewAt) {
+                    if (uploadRepository.claimLease(session.id, nodeId, leaseUntil(), LocalDateTime.now()) == 0) {
+                        throw new IllegalStateException("Upload session was taken over or removed");
+                    }
+                    renewAt = System.currentTimeMillis() + leaseMs / 2;
+                }
+
+                ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+                state.update(buffer, read);
+                session.offset += read;
+            }
+        }
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs));
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete upload file: {}", path, e);
+        }
+    }
+}
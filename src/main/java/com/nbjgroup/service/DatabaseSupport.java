@@ -0,0 +1,54 @@
+package com.nbjgroup.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Facts about the connected database for services with PostgreSQL-specific paths,
+ * and escaping for user input placed in LIKE patterns.
+ */
+@Component
+public class DatabaseSupport {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgreSql;
+
+    /**
+     * Check if the application is connected to PostgreSQL; looked up once
+     */
+    public boolean isPostgreSql() {
+        Boolean result = postgreSql;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgreSql = result;
+        }
+        return Boolean.TRUE.equals(result);
+    }
+
+    /**
+     * Escape LIKE wildcards so user input only matches literally; queries must declare ESCAPE '\'
+     */
+    public static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '%' || c == '_') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * LIKE pattern matching the value anywhere in a column
+     */
+    public static String containsPattern(String value) {
+        return "%" + escapeLike(value) + "%";
+    }
+}
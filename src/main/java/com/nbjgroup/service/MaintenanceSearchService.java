@@ -0,0 +1,104 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.entity.MaintenanceRequest;
+import com.nbjgroup.repository.MaintenanceRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked full-text search over maintenance request titles and descriptions.
+ * On PostgreSQL the weighted tsvector column and its GIN index come from
+ * db/migration/V1__maintenance_search_vector.sql; the database keeps the column current on every
+ * insert and update. Until that script has run, and on other databases (H2 in the dev profile),
+ * searches fall back to the LIKE query in MaintenanceRequestRepository.searchRequests.
+ */
+@Service
+public class MaintenanceSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceSearchService.class);
+
+    private static final String SEARCH_VECTOR_EXISTS_SQL =
+            "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = current_schema() " +
+            "AND table_name = 'maintenance_requests' AND column_name = 'search_vector'";
+
+    @Autowired
+    private MaintenanceRequestRepository maintenanceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseSupport databaseSupport;
+
+    private volatile boolean fullTextEnabled = false;
+
+    /**
+     * Enable full-text search if the migration has added the search column
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (!databaseSupport.isPostgreSql()) {
+                logger.info("Full-text search unavailable on this database, using LIKE search for maintenance requests");
+                return;
+            }
+            Integer columns = jdbcTemplate.queryForObject(SEARCH_VECTOR_EXISTS_SQL, Integer.class);
+            if (columns == null || columns == 0) {
+                logger.warn("maintenance_requests.search_vector is missing, using LIKE search until " +
+                        "db/migration/V1__maintenance_search_vector.sql is applied");
+                return;
+            }
+            fullTextEnabled = true;
+            logger.info("Full-text search enabled for maintenance requests");
+        } catch (Exception e) {
+            logger.error("Failed to check for full-text search, using LIKE search for maintenance requests", e);
+        }
+    }
+
+    /**
+     * Search maintenance requests, best matches first when full-text search is available.
+     * Accepts web-search syntax on PostgreSQL: quoted phrases, "or" and -excluded words.
+     */
+    @Transactional(readOnly = true)
+    public Page<MaintenanceRequest> search(String searchTerm, Pageable pageable) {
+        if (!fullTextEnabled) {
+            return maintenanceRepository.searchRequests(DatabaseSupport.escapeLike(searchTerm),
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        }
+
+        Page<Long> ids = maintenanceRepository.searchIdsByFullText(searchTerm,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), ids.getPageable(), ids.getTotalElements());
+        }
+
+        // Load the page with its tenants in one query, then restore rank order
+        Map<Long, Integer> rank = new HashMap<>();
+        for (Long id : ids.getContent()) {
+            rank.put(id, rank.size());
+        }
+        List<MaintenanceRequest> requests = maintenanceRepository.findAllWithTenantByIdIn(ids.getContent());
+        requests.sort(Comparator.comparing(request -> rank.get(request.getId())));
+
+        return new PageImpl<>(requests, ids.getPageable(), ids.getTotalElements());
+    }
+
+    public boolean isFullTextEnabled() {
+        return fullTextEnabled;
+    }
+}
@@ -1,5 +1,7 @@
 package com.nbjgroup.service;
 
+import com.nbjgroup.dto.CursorPage;
+import com.nbjgroup.dto.PageCursor;
 import com.nbjgroup.dto.maintenance.MaintenanceRequestDTO;
 import com.nbjgroup.entity.MaintenanceRequest;
 import com.nbjgroup.entity.Tenant;
@@ -7,16 +9,23 @@ import com.nbjgroup.entity.User;
 import com.nbjgroup.repository.MaintenanceRequestRepository;
 import com.nbjgroup.repository.TenantRepository;
 import com.nbjgroup.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public class MaintenanceService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceService.class);
+
     @Autowired
     private MaintenanceRequestRepository maintenanceRepository;
 
@@ -50,4 +59,70 @@ public class MaintenanceService {
 
         return maintenanceRepository.save(newRequest);
     }
+
+    /**
+     * Fetch one page of maintenance requests, newest first, continuing after the given cursor.
+     * Reads one extra row to learn whether another page follows, so no count query is needed.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<MaintenanceRequest> findPage(MaintenanceRequest.RequestStatus status,
+                                                   MaintenanceRequest.Priority priority,
+                                                   Long tenantId,
+                                                   PageCursor cursor,
+                                                   int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<MaintenanceRequest> rows = cursor == null
+                ? maintenanceRepository.findFirstKeysetPage(status, priority, tenantId, limit)
+                : maintenanceRepository.findKeysetPageAfter(status, priority, tenantId,
+                        cursor.createdAt(), cursor.id(), limit);
+
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<MaintenanceRequest> page = rows.subList(0, size);
+        MaintenanceRequest last = page.get(size - 1);
+        return new CursorPage<>(page, new PageCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    /**
+     * Total for a listing without a full scan where possible.
+     * The unfiltered total comes from the PostgreSQL planner statistics and is approximate;
+     * filtered totals, and any total on databases without those statistics, are exact counts.
+     * Not transactional on purpose: a failed estimate must not mark a surrounding transaction rollback-only.
+     */
+    public ListingTotal countRequests(MaintenanceRequest.RequestStatus status,
+                                      MaintenanceRequest.Priority priority,
+                                      Tenant tenant) {
+        if (tenant != null) {
+            return new ListingTotal(maintenanceRepository.countByTenant(tenant), false);
+        }
+        if (status != null && priority != null) {
+            return new ListingTotal(maintenanceRepository.countByStatusAndPriority(status, priority), false);
+        }
+        if (status != null) {
+            return new ListingTotal(maintenanceRepository.countByStatus(status), false);
+        }
+        if (priority != null) {
+            return new ListingTotal(maintenanceRepository.countByPriority(priority), false);
+        }
+        Long estimate = estimateRowCount();
+        // Before PostgreSQL 14 a never-analyzed table reports 0 rather than -1, so treat both as unknown
+        return estimate != null && estimate > 0
+                ? new ListingTotal(estimate, true)
+                : new ListingTotal(maintenanceRepository.count(), false);
+    }
+
+    private Long estimateRowCount() {
+        try {
+            return maintenanceRepository.estimateRowCount();
+        } catch (DataAccessException e) {
+            logger.debug("Row estimate unavailable, falling back to an exact count: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Total number of rows in a listing, and whether it is an estimate
+     */
+    public record ListingTotal(long count, boolean approximate) {}
 }
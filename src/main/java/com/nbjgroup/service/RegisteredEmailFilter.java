@@ -0,0 +1,124 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.util.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of registered email addresses.
+ * Answers "definitely not registered" without a database query; a positive answer only
+ * means "maybe", and the caller must confirm it with UserRepository.existsByEmail.
+ * The unique constraint on users.email remains the final guard, e.g. for emails
+ * registered through another node since this one started.
+ */
+@Component
+public class RegisteredEmailFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    private volatile boolean ready = false;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public RegisteredEmailFilter(@Value("${app.security.email-filter.expected-insertions:100000}") long expectedInsertions,
+                                 @Value("${app.security.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+
+        this.bits = new AtomicLongArray(words);
+        this.numBits = words * 64L;
+        this.numHashes = (int) Math.max(1, Math.round((double) numBits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Load every registered email once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            long start = System.currentTimeMillis();
+            int[] count = {0};
+            jdbcTemplate.query("SELECT email FROM users", (RowCallbackHandler) rs -> {
+                put(rs.getString(1));
+                count[0]++;
+            });
+            ready = true;
+            logger.info("Loaded {} email(s) into registered email filter in {} ms ({} bits, {} hashes)",
+                    count[0], System.currentTimeMillis() - start, numBits, numHashes);
+        } catch (Exception e) {
+            logger.error("Failed to load registered email filter, falling back to database checks", e);
+        }
+    }
+
+    /**
+     * Check if an email may already be registered.
+     * Always true until the filter has been loaded.
+     */
+    public boolean mightContain(String email) {
+        if (!ready || email == null) {
+            return true;
+        }
+
+        long hash = hash(email);
+        long h1 = Hashing.mix(hash);
+        long h2 = Hashing.mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Record a registered email
+     */
+    public void put(String email) {
+        if (email == null) {
+            return;
+        }
+
+        long hash = hash(email);
+        long h1 = Hashing.mix(hash);
+        long h2 = Hashing.mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of the email
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
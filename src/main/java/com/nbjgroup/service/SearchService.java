@@ -0,0 +1,144 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.dto.search.SearchHit;
+import com.nbjgroup.dto.search.SearchPage;
+import com.nbjgroup.entity.LeaseAgreement;
+import com.nbjgroup.entity.Payment;
+import com.nbjgroup.entity.Tenant;
+import com.nbjgroup.entity.User;
+import com.nbjgroup.repository.LeaseAgreementRepository;
+import com.nbjgroup.repository.PaymentRepository;
+import com.nbjgroup.repository.TenantRepository;
+import com.nbjgroup.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+
+/**
+ * Unified name search across tenants, users, payments and lease agreements.
+ * On PostgreSQL with pg_trgm installed, and the GIN trigram indexes on the lowered search expressions
+ * from db/migration/V2__trigram_search.sql, matching is index-backed and typo tolerant, ranked by
+ * trigram similarity. Otherwise searches fall back to the substring LIKE queries in each repository.
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private static final String TRIGRAM_EXTENSION_SQL =
+            "SELECT COUNT(*) FROM pg_extension WHERE extname = 'pg_trgm'";
+
+    /**
+     * Searchable entity types
+     */
+    public enum SearchType {
+        TENANTS, USERS, PAYMENTS, LEASES;
+
+        public static SearchType fromString(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private LeaseAgreementRepository leaseAgreementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DatabaseSupport databaseSupport;
+
+    private volatile boolean trigramEnabled = false;
+
+    /**
+     * Enable trigram search if the migration has installed pg_trgm
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            if (!databaseSupport.isPostgreSql()) {
+                logger.info("Trigram search unavailable on this database, using LIKE search");
+                return;
+            }
+            Integer extensions = jdbcTemplate.queryForObject(TRIGRAM_EXTENSION_SQL, Integer.class);
+            if (extensions == null || extensions == 0) {
+                logger.warn("pg_trgm is not installed, using LIKE search until " +
+                        "db/migration/V2__trigram_search.sql is applied");
+                return;
+            }
+            trigramEnabled = true;
+            logger.info("Trigram search enabled for tenants, users, payments and leases");
+        } catch (Exception e) {
+            logger.error("Failed to check for trigram search, using LIKE search", e);
+        }
+    }
+
+    /**
+     * Search one entity type, best matches first when trigram search is available
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<SearchHit> search(SearchType type, String searchTerm, Pageable pageable) {
+        String term = searchTerm.trim().toLowerCase(Locale.ROOT);
+        String typeName = type.name().toLowerCase(Locale.ROOT);
+        String pattern = DatabaseSupport.containsPattern(term);
+
+        if (trigramEnabled) {
+            Page<SearchHit> hits = switch (type) {
+                case TENANTS -> tenantRepository.fuzzySearchTenants(term, pattern, pageable).map(SearchHit::from);
+                case USERS -> userRepository.fuzzySearchByName(term, pageable).map(SearchHit::from);
+                case PAYMENTS -> paymentRepository.fuzzySearchPayments(term, pattern, pageable).map(SearchHit::from);
+                case LEASES -> leaseAgreementRepository.fuzzySearchByTenantName(term, pageable).map(SearchHit::from);
+            };
+            return SearchPage.of(typeName, hits, true);
+        }
+
+        String escapedTerm = DatabaseSupport.escapeLike(term);
+        Page<SearchHit> hits = switch (type) {
+            case TENANTS -> tenantRepository.searchTenants(escapedTerm, pageable).map(this::tenantHit);
+            case USERS -> userRepository.searchByName(escapedTerm, pageable).map(this::userHit);
+            case PAYMENTS -> paymentRepository.searchPayments(escapedTerm, pageable).map(this::paymentHit);
+            case LEASES -> leaseAgreementRepository.searchByTenantName(escapedTerm, pageable).map(this::leaseHit);
+        };
+        return SearchPage.of(typeName, hits, false);
+    }
+
+    public boolean isTrigramEnabled() {
+        return trigramEnabled;
+    }
+
+    private SearchHit tenantHit(Tenant tenant) {
+        return new SearchHit(tenant.getId(), tenant.getUser().getFullName(), tenant.getPropertyAddress(), null);
+    }
+
+    private SearchHit userHit(User user) {
+        return new SearchHit(user.getId(), user.getFullName(), user.getEmail(), null);
+    }
+
+    private SearchHit paymentHit(Payment payment) {
+        String reference = payment.getTransactionId() != null ? payment.getTransactionId() : payment.getReferenceNumber();
+        return new SearchHit(payment.getId(), payment.getTenant().getUser().getFullName(), reference, null);
+    }
+
+    private SearchHit leaseHit(LeaseAgreement lease) {
+        Tenant tenant = lease.getTenant();
+        return new SearchHit(lease.getId(), tenant.getUser().getFullName(), tenant.getPropertyAddress(), null);
+    }
+}
@@ -0,0 +1,255 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.dto.TenantSummary;
+import com.nbjgroup.entity.Tenant;
+import com.nbjgroup.repository.TenantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory n-gram index of tenant summaries for admin type-ahead.
+ * Name, email, property address and unit number are lower-cased into one key string per tenant.
+ * Every trigram of the key is indexed for infix lookup, and the one- and two-character prefix of
+ * every word for short prefix queries. A lookup intersects the posting sets of the query's grams,
+ * smallest first, and confirms each candidate against its key, so results are exact.
+ * Built at startup and updated on tenant and user writes, after the surrounding transaction commits.
+ */
+@Component
+public class TenantDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantDirectory.class);
+
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private static final Comparator<Match> MATCH_ORDER = Comparator.comparingInt(Match::rank)
+            .thenComparing(match -> match.entry().name());
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    /**
+     * Load every tenant once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            long start = System.currentTimeMillis();
+            List<Tenant> tenants = tenantRepository.findAllWithUserDetailsList();
+            tenants.forEach(tenant -> index(TenantSummary.from(tenant)));
+            ready = true;
+            logger.info("Loaded {} tenant(s) into tenant directory in {} ms ({} grams)",
+                    tenants.size(), System.currentTimeMillis() - start, postings.size());
+        } catch (Exception e) {
+            logger.warn("Failed to load tenant directory, type-ahead will use database search", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add or replace a tenant; its user must be loaded
+     */
+    public void put(Tenant tenant) {
+        TenantSummary summary = TenantSummary.from(tenant);
+        afterCommit(() -> index(summary));
+    }
+
+    /**
+     * Remove a tenant
+     */
+    public void remove(Long tenantId) {
+        afterCommit(() -> unindex(tenantId));
+    }
+
+    /**
+     * Tenants whose name, email, address or unit contains the query, word prefix matches first
+     */
+    public List<TenantSummary> search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<Set<Long>> sets = new ArrayList<>();
+        if (needle.length() < 3) {
+            sets.add(postings.getOrDefault(gram(needle, 0, needle.length()), Set.of()));
+        } else {
+            for (int i = 0; i + 3 <= needle.length(); i++) {
+                Set<Long> posting = postings.get(gram(needle, i, 3));
+                if (posting == null) {
+                    return List.of();
+                }
+                sets.add(posting);
+            }
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+
+        // Keep only the best `limit` matches; the head of the queue is the worst one kept
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, MATCH_ORDER.reversed());
+        candidates:
+        for (Long tenantId : sets.get(0)) {
+            for (int i = 1; i < sets.size(); i++) {
+                if (!sets.get(i).contains(tenantId)) {
+                    continue candidates;
+                }
+            }
+            Entry entry = entries.get(tenantId);
+            if (entry == null) {
+                continue;
+            }
+            // Once only name prefix matches are kept, nothing else can displace one
+            boolean onlyNamePrefix = best.size() == limit && best.peek().rank() == 0;
+            int rank = onlyNamePrefix ? (entry.key().startsWith(needle) ? 0 : -1) : rank(entry.key(), needle);
+            if (rank < 0) {
+                continue;
+            }
+            Match match = new Match(entry, rank);
+            if (best.size() < limit) {
+                best.add(match);
+            } else if (MATCH_ORDER.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(MATCH_ORDER);
+        return matches.stream().map(match -> match.entry().summary()).toList();
+    }
+
+    private synchronized void index(TenantSummary summary) {
+        unindex(summary.id());
+
+        String key = String.join(String.valueOf(FIELD_SEPARATOR),
+                normalize(summary.fullName()), normalize(summary.email()),
+                normalize(summary.propertyAddress()), normalize(summary.unitNumber()));
+        Entry entry = new Entry(summary, key, normalize(summary.fullName()));
+        entries.put(summary.id(), entry);
+        for (Long gram : grams(key)) {
+            postings.computeIfAbsent(gram, k -> ConcurrentHashMap.newKeySet()).add(summary.id());
+        }
+    }
+
+    private synchronized void unindex(Long tenantId) {
+        Entry previous = entries.remove(tenantId);
+        if (previous == null) {
+            return;
+        }
+        for (Long gram : grams(previous.key())) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(tenantId);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Every trigram of the key, plus the one- and two-character prefix of each word
+     */
+    private static Set<Long> grams(String key) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= key.length(); i++) {
+            // Grams spanning two fields can never match a query
+            if (key.charAt(i) != FIELD_SEPARATOR && key.charAt(i + 1) != FIELD_SEPARATOR
+                    && key.charAt(i + 2) != FIELD_SEPARATOR) {
+                grams.add(gram(key, i, 3));
+            }
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (isWordStart(key, i)) {
+                grams.add(gram(key, i, 1));
+                if (i + 1 < key.length() && key.charAt(i + 1) != FIELD_SEPARATOR) {
+                    grams.add(gram(key, i, 2));
+                }
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Pack up to three UTF-16 chars and the length into one long
+     */
+    private static long gram(String text, int start, int length) {
+        long gram = length;
+        for (int i = start; i < start + length; i++) {
+            gram = (gram << 16) | text.charAt(i);
+        }
+        return gram;
+    }
+
+    /**
+     * 0 for a name prefix, 1 for any other word prefix, 2 for an infix match, -1 if absent
+     */
+    private static int rank(String key, String needle) {
+        int best = -1;
+        for (int position = key.indexOf(needle); position >= 0; position = key.indexOf(needle, position + 1)) {
+            if (position == 0) {
+                return 0;
+            }
+            // Later occurrences cannot be at position 0, so a word prefix is the best left
+            if (isWordStart(key, position)) {
+                return 1;
+            }
+            best = 2;
+        }
+        return best;
+    }
+
+    private static boolean isWordStart(String key, int i) {
+        char c = key.charAt(i);
+        if (c == FIELD_SEPARATOR || c == ' ') {
+            return false;
+        }
+        return i == 0 || !Character.isLetterOrDigit(key.charAt(i - 1));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * @param name the lower-cased full name, for ordering matches of equal rank
+     */
+    private record Entry(TenantSummary summary, String key, String name) {}
+
+    private record Match(Entry entry, int rank) {}
+}
@@ -17,6 +17,9 @@ public class TenantService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TenantDirectory tenantDirectory;
+
     /**
      * Creates a Tenant profile and links it to a User.
      * This is a crucial piece of business logic.
@@ -35,6 +38,8 @@ public class TenantService {
         tenant.setLeaseStartDate(null); // Will be set when a lease is created
         tenant.setLeaseEndDate(null);
 
-        return tenantRepository.save(tenant);
+        Tenant savedTenant = tenantRepository.save(tenant);
+        tenantDirectory.put(savedTenant);
+        return savedTenant;
     }
 }
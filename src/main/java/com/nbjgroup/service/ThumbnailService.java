@@ -0,0 +1,363 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.entity.MaintenanceRequestFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * JPEG thumbnails for image attachments, generated with javax.imageio on a dedicated, bounded pool.
+ * One decode produces every size; large sources are subsampled while decoding so a full-resolution
+ * photo is never held in memory. Thumbnails are keyed by content hash, so deduplicated attachments
+ * share them, and live in an on-disk cache capped at app.file.thumbnails.cache-max-size that evicts
+ * the least recently used files, tracked through their modification time.
+ * Only content types ImageIO has a reader for are supported, and sources that fail to decode are
+ * remembered so they are not decoded again on every request.
+ * When the queue is full, requests are rejected immediately with RejectedExecutionException.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    /**
+     * Available thumbnail sizes, by longest edge in pixels
+     */
+    public enum ThumbnailSize {
+        SMALL(160), MEDIUM(480), LARGE(1024);
+
+        private final int maxEdge;
+
+        ThumbnailSize(int maxEdge) {
+            this.maxEdge = maxEdge;
+        }
+
+        public int getMaxEdge() {
+            return maxEdge;
+        }
+
+        public static ThumbnailSize fromString(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final int LARGEST_EDGE = ThumbnailSize.LARGE.getMaxEdge();
+    private static final int MAX_FAILED_KEYS = 10_000;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Path, Long> cachedSizes = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Set<String> failedKeys = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.upload.dir:${user.home}/nbj-uploads}")
+    private String uploadDir;
+
+    @Value("${app.file.thumbnails.cache-max-size:536870912}")
+    private long cacheMaxSize;
+
+    public ThumbnailService(@Value("${app.file.thumbnails.pool-size:2}") int poolSize,
+                            @Value("${app.file.thumbnails.queue-capacity:64}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Index thumbnails left on disk by a previous run
+     */
+    @PostConstruct
+    public void loadCache() {
+        try {
+            Files.createDirectories(cacheDirectory());
+            try (Stream<Path> files = Files.list(cacheDirectory())) {
+                files.filter(path -> path.toString().endsWith(".jpg")).forEach(path -> {
+                    try {
+                        track(path, Files.size(path));
+                    } catch (IOException e) {
+                        logger.debug("Skipping unreadable thumbnail {}", path);
+                    }
+                });
+            }
+            logger.info("Thumbnail cache holds {} file(s), {} bytes (cap {} bytes)",
+                    cachedSizes.size(), cachedBytes.get(), cacheMaxSize);
+        } catch (IOException e) {
+            logger.error("Failed to index thumbnail cache", e);
+        }
+    }
+
+    /**
+     * Check if thumbnails can be produced for an attachment: ImageIO must have a reader for its
+     * content type (so not HEIC or WebP on a stock JDK), and it must not have failed to decode before
+     */
+    public boolean supports(MaintenanceRequestFile file) {
+        String contentType = file.getContentType();
+        if (contentType == null || failedKeys.contains(cacheKey(file))) {
+            return false;
+        }
+        int parameters = contentType.indexOf(';');
+        String mimeType = (parameters >= 0 ? contentType.substring(0, parameters) : contentType)
+                .trim().toLowerCase(Locale.ROOT);
+        return ImageIO.getImageReadersByMIMEType(mimeType).hasNext();
+    }
+
+    /**
+     * Entity tag of a thumbnail, known without generating it
+     */
+    public String etagFor(MaintenanceRequestFile file, ThumbnailSize size) {
+        return "\"" + cacheKey(file) + "-" + size.name().toLowerCase(Locale.ROOT) + "\"";
+    }
+
+    /**
+     * Path of the requested thumbnail, generating all sizes on the pool first if needed.
+     * Throws RejectedExecutionException straight away if the pool is saturated.
+     */
+    public CompletableFuture<Path> getThumbnail(MaintenanceRequestFile file, ThumbnailSize size) {
+        String key = cacheKey(file);
+        Path thumbnail = thumbnailPath(key, size);
+        if (Files.exists(thumbnail)) {
+            touch(thumbnail);
+            return CompletableFuture.completedFuture(thumbnail);
+        }
+        if (failedKeys.contains(key)) {
+            return CompletableFuture.failedFuture(new IOException("Image could not be decoded: " + file.getFilePath()));
+        }
+        return generate(file).thenApply(ignored -> thumbnail);
+    }
+
+    /**
+     * Start generating thumbnails for a new upload; skipped when the pool is busy,
+     * in which case they are generated on first request instead
+     */
+    public void generateAfterUpload(MaintenanceRequestFile file) {
+        if (!supports(file) || Files.exists(thumbnailPath(cacheKey(file), ThumbnailSize.SMALL))) {
+            return;
+        }
+        try {
+            generate(file);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Thumbnail pool busy, deferring thumbnails for file {}", file.getId());
+        }
+    }
+
+    /**
+     * Generate every size once per source, sharing the work between concurrent callers
+     */
+    private CompletableFuture<Void> generate(MaintenanceRequestFile file) {
+        String key = cacheKey(file);
+        Path source = Paths.get(file.getFilePath());
+
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    writeThumbnails(source, key);
+                    created.complete(null);
+                } catch (Throwable t) {
+                    logger.warn("Thumbnail generation failed for {}", source, t);
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            throw e;
+        }
+        return created;
+    }
+
+    private void writeThumbnails(Path source, String key) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedImage image;
+        try {
+            image = decode(source);
+        } catch (IOException | RuntimeException e) {
+            // Decoding is deterministic, so a source that failed once will fail again; a missing source
+            // or a disk error while writing below is not remembered, as either may clear up
+            if (Files.isReadable(source)) {
+                if (failedKeys.size() >= MAX_FAILED_KEYS) {
+                    failedKeys.clear();
+                }
+                failedKeys.add(key);
+            }
+            throw e;
+        }
+
+        for (ThumbnailSize size : ThumbnailSize.values()) {
+            BufferedImage scaled = scale(image, size.getMaxEdge());
+            Path target = thumbnailPath(key, size);
+            Path partial = target.resolveSibling(target.getFileName() + ".part");
+            if (!ImageIO.write(scaled, "jpg", partial.toFile())) {
+                throw new IOException("No JPEG writer available");
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            track(target, Files.size(target));
+        }
+
+        logger.debug("Generated thumbnails for {} in {} ms", source, System.currentTimeMillis() - start);
+        evictIfNeeded();
+    }
+
+    /**
+     * Decode the source, subsampling rows and columns so it is at most about twice the largest thumbnail
+     */
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                throw new IOException("Cannot open image: " + source);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format: " + source);
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestEdge / (LARGEST_EDGE * 2));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int maxEdge) {
+        double ratio = Math.min(1.0, (double) maxEdge / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        // JPEG has no alpha channel, so always draw onto an opaque RGB canvas
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void track(Path path, long size) {
+        Long previous = cachedSizes.put(path, size);
+        cachedBytes.addAndGet(size - (previous != null ? previous : 0));
+    }
+
+    private void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("Could not touch thumbnail {}", path);
+        }
+    }
+
+    /**
+     * Delete least recently used thumbnails until the cache is back under 90% of its cap
+     */
+    private synchronized void evictIfNeeded() {
+        if (cachedBytes.get() <= cacheMaxSize) {
+            return;
+        }
+
+        long target = cacheMaxSize * 9 / 10;
+        List<Map.Entry<Path, FileTime>> byLastUse = new ArrayList<>();
+        for (Path path : cachedSizes.keySet()) {
+            try {
+                byLastUse.add(Map.entry(path, Files.getLastModifiedTime(path)));
+            } catch (IOException e) {
+                Long size = cachedSizes.remove(path);
+                cachedBytes.addAndGet(-(size != null ? size : 0));
+            }
+        }
+        byLastUse.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+
+        int evicted = 0;
+        for (Map.Entry<Path, FileTime> entry : byLastUse) {
+            if (cachedBytes.get() <= target) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.getKey());
+            } catch (IOException e) {
+                logger.debug("Could not evict thumbnail {}", entry.getKey());
+                continue;
+            }
+            Long size = cachedSizes.remove(entry.getKey());
+            cachedBytes.addAndGet(-(size != null ? size : 0));
+            evicted++;
+        }
+        logger.debug("Evicted {} thumbnail(s), cache now {} bytes", evicted, cachedBytes.get());
+    }
+
+    private Path cacheDirectory() {
+        return Paths.get(uploadDir, "thumbnails");
+    }
+
+    private Path thumbnailPath(String key, ThumbnailSize size) {
+        return cacheDirectory().resolve(key + "-" + size.name().toLowerCase(Locale.ROOT) + ".jpg");
+    }
+
+    private static String cacheKey(MaintenanceRequestFile file) {
+        return file.getContentHash() != null ? file.getContentHash() : "file-" + file.getId();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
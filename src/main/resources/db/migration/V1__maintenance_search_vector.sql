@@ -0,0 +1,12 @@
+-- Full-text search for maintenance requests, used by MaintenanceSearchService (PostgreSQL only).
+-- Apply with psql before deploying, outside a transaction block: CREATE INDEX CONCURRENTLY cannot
+-- run inside one. Adding the stored generated column rewrites maintenance_requests under an
+-- ACCESS EXCLUSIVE lock, so run this in a quiet period. The application only checks for the column.
+
+ALTER TABLE maintenance_requests ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')) STORED;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_maintenance_search
+    ON maintenance_requests USING GIN (search_vector);
@@ -0,0 +1,21 @@
+-- Trigram search for tenants, users, payments and leases, used by SearchService (PostgreSQL only).
+-- Apply with psql before deploying, outside a transaction block: CREATE INDEX CONCURRENTLY cannot
+-- run inside one. CREATE EXTENSION needs a superuser or the database owner, not the application role.
+-- The application only checks that pg_trgm is installed.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_name_trgm
+    ON users USING GIN (lower(first_name || ' ' || last_name) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tenant_address_trgm
+    ON tenants USING GIN (lower(property_address) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tenant_unit_trgm
+    ON tenants USING GIN (lower(unit_number) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_transaction_trgm
+    ON payments USING GIN (lower(transaction_id) gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payment_reference_trgm
+    ON payments USING GIN (lower(reference_number) gin_trgm_ops);
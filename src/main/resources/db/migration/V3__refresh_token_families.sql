@@ -0,0 +1,15 @@
+-- Refresh token families, used by RefreshTokenStore.
+-- Apply with psql before deploying; the prod profile validates the schema and will not start without it.
+
+CREATE TABLE IF NOT EXISTS refresh_token_families (
+    id               VARCHAR(36)  NOT NULL PRIMARY KEY,
+    user_email       VARCHAR(255) NOT NULL,
+    current_token_id VARCHAR(36)  NOT NULL,
+    revoked          BOOLEAN      NOT NULL DEFAULT FALSE,
+    expires_at       TIMESTAMP(6) NOT NULL,
+    created_at       TIMESTAMP(6) NOT NULL,
+    rotated_at       TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_family_user ON refresh_token_families (user_email);
+CREATE INDEX IF NOT EXISTS idx_refresh_family_expires ON refresh_token_families (expires_at);
@@ -0,0 +1,6 @@
+-- Sniffed content type and SHA-256 of each attachment, written by AttachmentStorageService.
+-- Apply with psql before deploying; the prod profile validates the schema and will not start without it.
+-- Both columns are nullable, so adding them does not rewrite maintenance_request_files.
+
+ALTER TABLE maintenance_request_files ADD COLUMN IF NOT EXISTS content_type VARCHAR(100);
+ALTER TABLE maintenance_request_files ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
@@ -0,0 +1,11 @@
+-- Content-addressed attachment blobs with reference counts, used by AttachmentStorageService.
+-- Apply with psql before deploying; the prod profile validates the schema and will not start without it.
+
+CREATE TABLE IF NOT EXISTS attachment_blobs (
+    content_hash    VARCHAR(64)  NOT NULL PRIMARY KEY,
+    storage_path    VARCHAR(255) NOT NULL,
+    size            BIGINT       NOT NULL,
+    content_type    VARCHAR(100),
+    reference_count INTEGER      NOT NULL DEFAULT 1,
+    created_at      TIMESTAMP(6) NOT NULL
+);
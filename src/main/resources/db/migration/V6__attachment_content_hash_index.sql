@@ -0,0 +1,6 @@
+-- Index on attachment content hashes, used when a client asks to reuse already uploaded content.
+-- Apply with psql before deploying, outside a transaction block: CREATE INDEX CONCURRENTLY cannot
+-- run inside one.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_maintenance_file_content_hash
+    ON maintenance_request_files (content_hash);
@@ -0,0 +1,20 @@
+-- Resumable upload sessions, used by ChunkedUploadService so any node can continue an upload.
+-- Apply with psql before deploying; the prod profile validates the schema and will not start without it.
+
+CREATE TABLE IF NOT EXISTS chunked_uploads (
+    id                     VARCHAR(36)  NOT NULL PRIMARY KEY,
+    maintenance_request_id BIGINT       NOT NULL,
+    owner_email            VARCHAR(255) NOT NULL,
+    file_name              VARCHAR(255) NOT NULL,
+    declared_content_type  VARCHAR(100),
+    size                   BIGINT       NOT NULL,
+    upload_offset          BIGINT       NOT NULL DEFAULT 0,
+    temp_path              VARCHAR(255) NOT NULL,
+    lease_owner            VARCHAR(36),
+    lease_until            TIMESTAMP(6),
+    last_activity          TIMESTAMP(6) NOT NULL,
+    created_at             TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_chunked_upload_owner ON chunked_uploads (owner_email);
+CREATE INDEX IF NOT EXISTS idx_chunked_upload_activity ON chunked_uploads (last_activity);
@@ -0,0 +1,10 @@
+-- Access token revocations, used by UserRevocationList so every node honours them.
+-- Apply with psql before deploying; the prod profile validates the schema and will not start without it.
+
+CREATE TABLE IF NOT EXISTS user_revocations (
+    user_email VARCHAR(255) NOT NULL PRIMARY KEY,
+    revoked_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_revocation_expires ON user_revocations (expires_at);
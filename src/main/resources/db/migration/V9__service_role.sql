@@ -0,0 +1,6 @@
+-- Allow the SERVICE role used by gateway accounts that call /auth/validate/batch.
+-- Apply with psql before deploying. Schemas created by Hibernate carry a check constraint listing
+-- the roles that existed then; it is replaced with one that includes SERVICE.
+
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_role_check;
+ALTER TABLE users ADD CONSTRAINT users_role_check CHECK (role IN ('ADMIN', 'TENANT', 'SERVICE'));
@@ -0,0 +1,107 @@
+package com.nbjgroup.controller;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileResponseWriterTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parsesClosedOpenAndSuffixRanges() {
+        assertThat(FileResponseWriter.parseRange("bytes=0-99", 1000)).isEqualTo(new FileResponseWriter.ByteRange(0, 99));
+        assertThat(FileResponseWriter.parseRange("bytes=900-", 1000)).isEqualTo(new FileResponseWriter.ByteRange(900, 999));
+        assertThat(FileResponseWriter.parseRange("bytes=-100", 1000)).isEqualTo(new FileResponseWriter.ByteRange(900, 999));
+        assertThat(FileResponseWriter.parseRange("bytes=-5000", 1000)).isEqualTo(new FileResponseWriter.ByteRange(0, 999));
+        assertThat(FileResponseWriter.parseRange("bytes=500-5000", 1000)).isEqualTo(new FileResponseWriter.ByteRange(500, 999));
+    }
+
+    @Test
+    void servesTheWholeFileForMalformedOrMultipleRanges() {
+        assertThat(FileResponseWriter.parseRange("items=0-1", 1000)).isNull();
+        assertThat(FileResponseWriter.parseRange("bytes=0-1,5-6", 1000)).isNull();
+        assertThat(FileResponseWriter.parseRange("bytes=abc-", 1000)).isNull();
+        assertThat(FileResponseWriter.parseRange("bytes=100", 1000)).isNull();
+    }
+
+    @Test
+    void rejectsRangesOutsideTheFile() {
+        assertThat(FileResponseWriter.parseRange("bytes=1000-", 1000)).isSameAs(FileResponseWriter.UNSATISFIABLE);
+        assertThat(FileResponseWriter.parseRange("bytes=20-10", 1000)).isSameAs(FileResponseWriter.UNSATISFIABLE);
+        assertThat(FileResponseWriter.parseRange("bytes=-0", 1000)).isSameAs(FileResponseWriter.UNSATISFIABLE);
+        assertThat(FileResponseWriter.parseRange("bytes=-10", 0)).isSameAs(FileResponseWriter.UNSATISFIABLE);
+    }
+
+    @Test
+    void ifNoneMatchComparesWeaklyAndAcceptsLists() {
+        assertThat(FileResponseWriter.matchesIfNoneMatch(ETAG, ETAG)).isTrue();
+        assertThat(FileResponseWriter.matchesIfNoneMatch("W/" + ETAG, ETAG)).isTrue();
+        assertThat(FileResponseWriter.matchesIfNoneMatch("\"other\", " + ETAG, ETAG)).isTrue();
+        assertThat(FileResponseWriter.matchesIfNoneMatch("*", ETAG)).isTrue();
+        assertThat(FileResponseWriter.matchesIfNoneMatch("\"other\"", ETAG)).isFalse();
+        assertThat(FileResponseWriter.matchesIfNoneMatch(null, ETAG)).isFalse();
+    }
+
+    @Test
+    void ifRangeNeedsAStrongMatch() {
+        assertThat(FileResponseWriter.ifRangeMatches(null, ETAG)).isTrue();
+        assertThat(FileResponseWriter.ifRangeMatches(ETAG, ETAG)).isTrue();
+        assertThat(FileResponseWriter.ifRangeMatches("\"other\"", ETAG)).isFalse();
+        assertThat(FileResponseWriter.ifRangeMatches("W/" + ETAG, "W/" + ETAG)).isFalse();
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWithNotModified() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/1/download");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new FileResponseWriter().write(request, response, file("0123456789"), "text/plain", ETAG, "a.txt", null);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void servesARequestedRangeAsPartialContent() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/1/download");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new FileResponseWriter().write(request, response, file("0123456789"), "text/plain", ETAG, "a.txt", null);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void reportsTheLengthForAnUnsatisfiableRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/1/download");
+        request.addHeader(HttpHeaders.RANGE, "bytes=50-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new FileResponseWriter().write(request, response, file("0123456789"), "text/plain", ETAG, "a.txt", null);
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    private Path file(String content) throws IOException {
+        return Files.writeString(tempDir.resolve("data.txt"), content, StandardCharsets.UTF_8);
+    }
+}
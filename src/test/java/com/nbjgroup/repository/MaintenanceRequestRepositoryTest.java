@@ -0,0 +1,136 @@
+package com.nbjgroup.repository;
+
+import com.nbjgroup.entity.MaintenanceRequest;
+import com.nbjgroup.entity.MaintenanceRequestFile;
+import com.nbjgroup.entity.Tenant;
+import com.nbjgroup.entity.User;
+import com.nbjgroup.service.DatabaseSupport;
+import com.nbjgroup.support.JpaTestConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement counts for paged maintenance listings, read the way convertToDTO reads them
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MaintenanceRequestRepositoryTest {
+
+    private static final int TENANTS = 10;
+    private static final int REQUESTS_PER_TENANT = 6;
+
+    @Autowired
+    private MaintenanceRequestRepository requestRepository;
+
+    @Autowired
+    private MaintenanceRequestFileRepository fileRepository;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void createRequests() {
+        for (int t = 0; t < TENANTS; t++) {
+            User user = userRepository.save(new User("tenant" + t + "@example.com", "encoded-password", "Tenant", "No" + t, User.Role.TENANT));
+            Tenant tenant = tenantRepository.save(new Tenant(user, t + " Main Street", null, BigDecimal.TEN));
+            for (int r = 0; r < REQUESTS_PER_TENANT; r++) {
+                MaintenanceRequest request = requestRepository.save(new MaintenanceRequest(tenant, "Leak " + r, "Water under the sink",
+                        MaintenanceRequest.Category.PLUMBING, MaintenanceRequest.Priority.MEDIUM));
+                for (int f = 0; f < 2; f++) {
+                    fileRepository.save(new MaintenanceRequestFile(request, "file" + f + ".jpg", "photo" + f + ".jpg",
+                            "/uploads/file" + f + ".jpg", MaintenanceRequestFile.AttachmentType.IMAGE));
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void clearTables() {
+        fileRepository.deleteAll();
+        requestRepository.deleteAll();
+        tenantRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findAllCostsTheSameStatementsWhateverThePageSize() {
+        Function<PageRequest, Page<MaintenanceRequest>> findAll = requestRepository::findAll;
+
+        long small = statementsToRead(findAll, 5);
+        long large = statementsToRead(findAll, 40);
+
+        // Page query, count query and one batched attachment query
+        assertThat(small).isEqualTo(3);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void findByStatusCostsTheSameStatementsWhateverThePageSize() {
+        Function<PageRequest, Page<MaintenanceRequest>> findByStatus =
+                pageable -> requestRepository.findByStatus(MaintenanceRequest.RequestStatus.PENDING, pageable);
+
+        assertThat(statementsToRead(findByStatus, 40)).isEqualTo(statementsToRead(findByStatus, 5));
+    }
+
+    @Test
+    void likeSearchMatchesWildcardsLiterally() {
+        PageRequest page = PageRequest.of(0, 100);
+
+        assertThat(requestRepository.searchRequests(DatabaseSupport.escapeLike("leak"), page).getTotalElements())
+                .isEqualTo(TENANTS * REQUESTS_PER_TENANT);
+        assertThat(requestRepository.searchRequests(DatabaseSupport.escapeLike("%"), page).getTotalElements()).isZero();
+        assertThat(requestRepository.searchRequests(DatabaseSupport.escapeLike("L_ak"), page).getTotalElements()).isZero();
+    }
+
+    /**
+     * Load one page and touch everything the listing DTO reads, counting prepared statements
+     */
+    private long statementsToRead(Function<PageRequest, Page<MaintenanceRequest>> query, int pageSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        return transaction.execute(status -> {
+            statistics.clear();
+            Page<MaintenanceRequest> page = query.apply(PageRequest.of(0, pageSize, Sort.by("createdAt").descending()));
+            assertThat(page.getContent()).hasSize(pageSize);
+            for (MaintenanceRequest request : page.getContent()) {
+                assertThat(request.getTenant().getUser().getEmail()).isNotBlank();
+                assertThat(request.getAttachments()).hasSize(2);
+            }
+            return statistics.getPrepareStatementCount();
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.nbjgroup.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptivePasswordEncoderTest {
+
+    @Test
+    void upgradesOnlyHashesWeakerThanTheCurrentCost() {
+        String weaker = new AdaptivePasswordEncoder(4).encode("secret");
+        String same = new AdaptivePasswordEncoder(5).encode("secret");
+        String stronger = new AdaptivePasswordEncoder(6).encode("secret");
+
+        AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding(weaker)).isTrue();
+        assertThat(encoder.upgradeEncoding(same)).isFalse();
+        assertThat(encoder.upgradeEncoding(stronger)).isFalse();
+        assertThat(encoder.matches("secret", stronger)).isTrue();
+    }
+
+    @Test
+    void leavesUnrecognisedHashesAlone() {
+        AdaptivePasswordEncoder encoder = new AdaptivePasswordEncoder(5);
+
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+        assertThat(encoder.upgradeEncoding("")).isFalse();
+        assertThat(encoder.upgradeEncoding("{noop}secret")).isFalse();
+    }
+}
@@ -0,0 +1,79 @@
+package com.nbjgroup.security;
+
+import com.nbjgroup.dto.auth.TokenValidationResult;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchTokenValidatorTest {
+
+    private final JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+    private final UserRevocationList revocationList = mock(UserRevocationList.class);
+    private final BatchTokenValidator validator = new BatchTokenValidator(2, 4);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(validator, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(validator, "revocationList", revocationList);
+        // A token is the subject it was issued to; "bad" tokens do not parse
+        when(tokenProvider.parseToken(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            return token.startsWith("bad") ? null : parsed(token);
+        });
+    }
+
+    @AfterEach
+    void shutdown() {
+        validator.shutdown();
+    }
+
+    @Test
+    void keepsRequestOrderAcrossSlices() {
+        List<String> tokens = IntStream.range(0, 100)
+                .mapToObj(i -> i % 7 == 0 ? "bad" + i : "user" + i + "@example.com")
+                .toList();
+
+        List<TokenValidationResult> results = validator.validateAll(tokens);
+
+        assertThat(results).hasSize(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i % 7 == 0) {
+                assertThat(results.get(i).isValid()).isFalse();
+            } else {
+                assertThat(results.get(i).getUsername()).isEqualTo(tokens.get(i));
+            }
+        }
+    }
+
+    @Test
+    void reportsTokensOfRevokedUsersAsInvalid() {
+        when(revocationList.isRevoked(eq("revoked@example.com"), any())).thenReturn(true);
+
+        List<TokenValidationResult> results = validator.validateAll(List.of("revoked@example.com", "active@example.com"));
+
+        assertThat(results.get(0).isValid()).isFalse();
+        assertThat(results.get(0).getUsername()).isNull();
+        assertThat(results.get(1).isValid()).isTrue();
+    }
+
+    private static ParsedToken parsed(String subject) {
+        Claims claims = Jwts.claims().setSubject(subject);
+        claims.setIssuedAt(new Date());
+        claims.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        return new ParsedToken(claims);
+    }
+}
@@ -0,0 +1,116 @@
+package com.nbjgroup.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String FIRST_SECRET = "a".repeat(64);
+    private static final String SECOND_SECRET = "b".repeat(64);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void acceptsTokensWithoutAKeyIdOnlyUntilTheCutoff() {
+        String unkeyed = unkeyedToken(FIRST_SECRET);
+
+        JwtTokenProvider afterCutoff = provider("", Instant.now().minusSeconds(1).toString());
+        assertThat(afterCutoff.parseToken(unkeyed)).isNull();
+        assertThat(afterCutoff.parseToken(afterCutoff.generateTokenFromUsername("tenant@example.com"))).isNotNull();
+
+        JwtTokenProvider beforeCutoff = provider("", Instant.now().plusSeconds(3600).toString());
+        assertThat(beforeCutoff.parseToken(unkeyed)).isNotNull();
+        assertThat(beforeCutoff.parseToken(unkeyedToken(SECOND_SECRET))).isNull();
+    }
+
+    @Test
+    void acceptsTokensWithoutAKeyIdForARefreshExpirationByDefault() {
+        JwtTokenProvider provider = provider("", "");
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationInMs", 3_600_000L);
+        provider.init();
+        assertThat(provider.parseToken(unkeyedToken(FIRST_SECRET))).isNotNull();
+
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationInMs", 0L);
+        provider.init();
+        assertThat(provider.parseToken(unkeyedToken(FIRST_SECRET))).isNull();
+    }
+
+    @Test
+    void picksUpARotatedKeyFileWithoutARestart() throws IOException {
+        Path keyFile = tempDir.resolve("jwt-keys.properties");
+        writeKeys(keyFile, "key-id=first\nsecret=" + FIRST_SECRET + "\n", 1_000);
+        JwtTokenProvider provider = provider(keyFile.toString());
+        String firstToken = provider.generateTokenFromUsername("tenant@example.com");
+
+        writeKeys(keyFile, "key-id=second\nsecret=" + SECOND_SECRET + "\nverification-keys=first:" + FIRST_SECRET + "\n", 2_000);
+        provider.reloadKeys();
+        String secondToken = provider.generateTokenFromUsername("tenant@example.com");
+
+        assertThat(provider.parseToken(firstToken)).isNotNull();
+        assertThat(provider.parseToken(secondToken)).isNotNull();
+
+        // Retiring the old key stops its tokens
+        writeKeys(keyFile, "key-id=second\nsecret=" + SECOND_SECRET + "\n", 3_000);
+        provider.reloadKeys();
+        assertThat(provider.parseToken(firstToken)).isNull();
+        assertThat(provider.parseToken(secondToken)).isNotNull();
+    }
+
+    @Test
+    void keepsTheCurrentKeysWhenTheKeyFileIsBroken() throws IOException {
+        Path keyFile = tempDir.resolve("jwt-keys.properties");
+        writeKeys(keyFile, "key-id=first\nsecret=" + FIRST_SECRET + "\n", 1_000);
+        JwtTokenProvider provider = provider(keyFile.toString());
+        String token = provider.generateTokenFromUsername("tenant@example.com");
+
+        writeKeys(keyFile, "key-id=second\nsecret=" + SECOND_SECRET + "\nverification-keys=broken\n", 2_000);
+        provider.reloadKeys();
+
+        assertThat(provider.parseToken(token)).isNotNull();
+    }
+
+    private JwtTokenProvider provider(String keyFile) {
+        return provider(keyFile, "");
+    }
+
+    private JwtTokenProvider provider(String keyFile, String unkeyedTokensUntil) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", FIRST_SECRET);
+        ReflectionTestUtils.setField(provider, "jwtKeyId", "primary");
+        ReflectionTestUtils.setField(provider, "jwtVerificationKeys", "");
+        ReflectionTestUtils.setField(provider, "jwtKeyFile", keyFile);
+        ReflectionTestUtils.setField(provider, "unkeyedTokensUntil", unkeyedTokensUntil);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 60_000L);
+        ReflectionTestUtils.setField(provider, "authMetrics", new AuthMetrics(new SimpleMeterRegistry()));
+        provider.init();
+        return provider;
+    }
+
+    private static String unkeyedToken(String secret) {
+        return Jwts.builder()
+                .setSubject("tenant@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS512)
+                .compact();
+    }
+
+    private static void writeKeys(Path keyFile, String content, long modifiedMillis) throws IOException {
+        Files.writeString(keyFile, content);
+        Files.setLastModifiedTime(keyFile, FileTime.fromMillis(modifiedMillis));
+    }
+}
@@ -0,0 +1,75 @@
+package com.nbjgroup.security;
+
+import jakarta.servlet.ServletException;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private final LoginThrottle throttle = new LoginThrottle(true, 60_000, 3, 100, 1024);
+
+    @Test
+    void blocksAnEmailAfterTooManyFailures() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.isBlocked("victim@example.com", "10.0.0.1")).isFalse();
+            throttle.recordFailure(" Victim@Example.com ", "10.0.0.1");
+        }
+
+        assertThat(throttle.isBlocked("victim@example.com", "10.0.0.2")).isTrue();
+        assertThat(throttle.isBlocked("someone@example.com", "10.0.0.2")).isFalse();
+    }
+
+    @Test
+    void stringHashCodeCollisionsDoNotShareCounters() {
+        // "Aa" and "BB" have the same String.hashCode()
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("Aa@example.com", "10.0.0." + i);
+        }
+
+        assertThat("Aa@example.com".hashCode()).isEqualTo("BB@example.com".hashCode());
+        assertThat(throttle.isBlocked("BB@example.com", "10.0.0.9")).isFalse();
+    }
+
+    @Test
+    void keysClientsBehindOneProxySeparately() throws Exception {
+        // Same settings as server.tomcat.remoteip in application.yml, with the proxy at 10.0.0.1
+        RemoteIpFilter remoteIp = new RemoteIpFilter();
+        MockFilterConfig config = new MockFilterConfig();
+        config.addInitParameter("internalProxies", "10\\.\\d+\\.\\d+\\.\\d+");
+        config.addInitParameter("remoteIpHeader", "X-Forwarded-For");
+        remoteIp.init(config);
+
+        String attacker = clientAddress(remoteIp, "203.0.113.7");
+        String victim = clientAddress(remoteIp, "198.51.100.20");
+        assertThat(attacker).isEqualTo("203.0.113.7");
+        assertThat(victim).isEqualTo("198.51.100.20");
+
+        LoginThrottle throttle = new LoginThrottle(true, 60_000, 100, 3, 1024);
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("guess" + i + "@example.com", attacker);
+        }
+
+        assertThat(throttle.isBlocked("someone@example.com", attacker)).isTrue();
+        assertThat(throttle.isBlocked("victim@example.com", victim)).isFalse();
+    }
+
+    /**
+     * Address the application sees for a client reaching it through the proxy
+     */
+    private static String clientAddress(RemoteIpFilter remoteIp, String client) throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("X-Forwarded-For", client);
+        MockFilterChain chain = new MockFilterChain();
+        remoteIp.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain.getRequest().getRemoteAddr();
+    }
+}
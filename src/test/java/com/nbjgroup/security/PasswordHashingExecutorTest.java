@@ -0,0 +1,67 @@
+package com.nbjgroup.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashingExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(meterRegistry, 1, 4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void hashTimerExcludesDependentStages() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> hashed = executor.submit(() -> {
+            await(release);
+            return "hash";
+        });
+        // Attached before completion, so it runs on the worker that completes the future
+        CompletableFuture<Void> slowContinuation = hashed.thenRun(() -> sleep(300));
+
+        release.countDown();
+        slowContinuation.get(5, TimeUnit.SECONDS);
+
+        assertThat(meterRegistry.timer("auth.password.hash").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("auth.password.hash").totalTime(TimeUnit.MILLISECONDS)).isLessThan(250);
+    }
+
+    @Test
+    void failuresCompleteTheFutureExceptionally() {
+        CompletableFuture<String> failed = executor.submit(() -> {
+            throw new IllegalArgumentException("bad input");
+        });
+
+        assertThat(failed).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
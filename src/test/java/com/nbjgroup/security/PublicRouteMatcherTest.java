@@ -0,0 +1,67 @@
+package com.nbjgroup.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicRouteMatcherTest {
+
+    private final PublicRouteMatcher matcher = new PublicRouteMatcher();
+
+    @Test
+    void theLongestMatchingRouteDecides() {
+        assertThat(matcher.classify("/auth/login", 0)).isEqualTo(PublicRouteMatcher.Access.PUBLIC);
+        assertThat(matcher.classify("/auth/refresh", 0)).isEqualTo(PublicRouteMatcher.Access.PUBLIC);
+        assertThat(matcher.classify("/auth/me", 0)).isEqualTo(PublicRouteMatcher.Access.PERMIT_ALL);
+        assertThat(matcher.classify("/auth", 0)).isEqualTo(PublicRouteMatcher.Access.PERMIT_ALL);
+        assertThat(matcher.classify("/auth/login/extra", 0)).isEqualTo(PublicRouteMatcher.Access.PUBLIC);
+    }
+
+    @Test
+    void protectedRoutesAreNotClassified() {
+        assertThat(matcher.classify("/", 0)).isNull();
+        assertThat(matcher.classify("", 0)).isNull();
+        assertThat(matcher.classify("/maintenance", 0)).isNull();
+        assertThat(matcher.classify("/files/1/download", 0)).isNull();
+        assertThat(matcher.classify("/actuator", 0)).isNull();
+        assertThat(matcher.classify("/actuator/metrics", 0)).isNull();
+    }
+
+    @Test
+    void routesOnlyMatchAtSegmentBoundaries() {
+        assertThat(matcher.classify("/authx", 0)).isNull();
+        assertThat(matcher.classify("/authx/login", 0)).isNull();
+        assertThat(matcher.classify("/auth/loginx", 0)).isEqualTo(PublicRouteMatcher.Access.PERMIT_ALL);
+        assertThat(matcher.classify("/healthz", 0)).isNull();
+        assertThat(matcher.classify("/jsx/app.js", 0)).isNull();
+        assertThat(matcher.classify("/auth/", 0)).isEqualTo(PublicRouteMatcher.Access.PERMIT_ALL);
+    }
+
+    @Test
+    void healthChecksAndStaticResourcesArePublic() {
+        for (String path : new String[] {"/health", "/actuator/health", "/actuator/health/liveness",
+                "/favicon.ico", "/static/app.js", "/css/site.css", "/js/app.js", "/images/logo.png",
+                "/swagger-ui/index.html", "/v3/api-docs", "/h2-console"}) {
+            assertThat(matcher.classify(path, 0)).as(path).isEqualTo(PublicRouteMatcher.Access.PUBLIC);
+        }
+    }
+
+    @Test
+    void pathsAreReadAfterTheContextPath() {
+        assertThat(matcher.classify("/api/auth/login", 4)).isEqualTo(PublicRouteMatcher.Access.PUBLIC);
+        assertThat(matcher.classify("/api/maintenance", 4)).isNull();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/health");
+        request.setContextPath("/api");
+        assertThat(matcher.isPublic(request)).isTrue();
+        assertThat(matcher.permitAllMatcher().matches(request)).isTrue();
+
+        request.setRequestURI("/api/auth/me");
+        assertThat(matcher.isPublic(request)).isFalse();
+        assertThat(matcher.permitAllMatcher().matches(request)).isTrue();
+
+        request.setRequestURI("/health");
+        assertThat(matcher.permitAllMatcher().matches(request)).isFalse();
+    }
+}
@@ -0,0 +1,136 @@
+package com.nbjgroup.security;
+
+import com.nbjgroup.entity.RefreshTokenFamily;
+import com.nbjgroup.repository.RefreshTokenFamilyRepository;
+import com.nbjgroup.support.JpaTestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refresh token rotation against the database, including reuse detection
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.jwt.refresh-expiration=60000"
+})
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import(RefreshTokenStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenStoreTest {
+
+    private static final String EMAIL = "tenant@example.com";
+
+    @Autowired
+    private RefreshTokenStore tokenStore;
+
+    @Autowired
+    private RefreshTokenFamilyRepository familyRepository;
+
+    @AfterEach
+    void clearFamilies() {
+        familyRepository.deleteAll();
+    }
+
+    @Test
+    void replayingASupersededTokenRevokesTheFamily() {
+        RefreshTokenFamily family = tokenStore.startFamily(EMAIL);
+        String firstToken = family.getCurrentTokenId();
+
+        String secondToken = tokenStore.rotate(family.getId(), firstToken);
+        assertThat(secondToken).isNotNull().isNotEqualTo(firstToken);
+
+        // The first token is replayed, e.g. by whoever stole it
+        assertThat(tokenStore.rotate(family.getId(), firstToken)).isNull();
+        assertThat(tokenStore.isRevoked(family.getId())).isTrue();
+        assertThat(familyRepository.findById(family.getId()).orElseThrow().getRevoked()).isTrue();
+
+        // The legitimate holder of the newest token is logged out as well
+        assertThat(tokenStore.rotate(family.getId(), secondToken)).isNull();
+    }
+
+    @Test
+    void onlyOneConcurrentRotationOfATokenWins() throws Exception {
+        RefreshTokenFamily family = tokenStore.startFamily(EMAIL);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return tokenStore.rotate(family.getId(), family.getCurrentTokenId());
+                }));
+            }
+            start.countDown();
+
+            List<String> winners = new ArrayList<>();
+            for (Future<String> result : results) {
+                winners.add(result.get());
+            }
+            assertThat(winners.stream().filter(Objects::nonNull)).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The losers presented a token that was no longer current, which counts as reuse
+        assertThat(tokenStore.isRevoked(family.getId())).isTrue();
+    }
+
+    @Test
+    void rejectsRevokedFamilies() {
+        RefreshTokenFamily family = tokenStore.startFamily(EMAIL);
+        tokenStore.revokeFamily(family.getId());
+
+        assertThat(tokenStore.rotate(family.getId(), family.getCurrentTokenId())).isNull();
+        assertThat(familyRepository.findById(family.getId()).orElseThrow().getCurrentTokenId())
+                .isEqualTo(family.getCurrentTokenId());
+    }
+
+    @Test
+    void rejectsExpiredFamiliesWithoutRevokingThem() {
+        String tokenId = UUID.randomUUID().toString();
+        RefreshTokenFamily family = familyRepository.save(new RefreshTokenFamily(
+                UUID.randomUUID().toString(), EMAIL, tokenId, LocalDateTime.now().minusMinutes(1)));
+
+        assertThat(tokenStore.rotate(family.getId(), tokenId)).isNull();
+        assertThat(tokenStore.isRevoked(family.getId())).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownFamilies() {
+        assertThat(tokenStore.rotate(UUID.randomUUID().toString(), UUID.randomUUID().toString())).isNull();
+        assertThat(tokenStore.rotate(null, UUID.randomUUID().toString())).isNull();
+    }
+
+    @Test
+    void revokesEveryLiveFamilyOfAUser() {
+        RefreshTokenFamily phone = tokenStore.startFamily(EMAIL);
+        RefreshTokenFamily laptop = tokenStore.startFamily(EMAIL);
+        RefreshTokenFamily other = tokenStore.startFamily("other@example.com");
+
+        tokenStore.revokeAllForUser(EMAIL);
+
+        assertThat(tokenStore.rotate(phone.getId(), phone.getCurrentTokenId())).isNull();
+        assertThat(tokenStore.rotate(laptop.getId(), laptop.getCurrentTokenId())).isNull();
+        assertThat(tokenStore.rotate(other.getId(), other.getCurrentTokenId())).isNotNull();
+    }
+}
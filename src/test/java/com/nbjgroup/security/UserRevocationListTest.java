@@ -0,0 +1,94 @@
+package com.nbjgroup.security;
+
+import com.nbjgroup.entity.UserRevocation;
+import com.nbjgroup.repository.UserRevocationRepository;
+import com.nbjgroup.support.JpaTestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Revocations shared through the database; a second instance stands in for another node or a restart
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.jwt.expiration=60000"
+})
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import(UserRevocationList.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRevocationListTest {
+
+    private static final String EMAIL = "tenant@example.com";
+
+    @Autowired
+    private UserRevocationList revocationList;
+
+    @Autowired
+    private UserRevocationRepository revocationRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @AfterEach
+    void clearRevocations() {
+        revocationRepository.deleteAll();
+    }
+
+    @Test
+    void revokesTokensIssuedUpToNowOnly() {
+        Date before = new Date(System.currentTimeMillis() - 1000);
+        revocationList.revoke(EMAIL);
+
+        assertThat(revocationList.isRevoked(EMAIL, before)).isTrue();
+        assertThat(revocationList.isRevoked(EMAIL, new Date(System.currentTimeMillis() + 1000))).isFalse();
+        assertThat(revocationList.isRevoked("other@example.com", before)).isFalse();
+    }
+
+    @Test
+    void anotherNodeSeesTheRevocationAfterRefreshing() {
+        UserRevocationList otherNode = applicationContext.getAutowireCapableBeanFactory()
+                .createBean(UserRevocationList.class);
+        Date issuedAt = new Date(System.currentTimeMillis() - 1000);
+
+        revocationList.revoke(EMAIL);
+        assertThat(otherNode.isRevoked(EMAIL, issuedAt)).isFalse();
+
+        otherNode.refresh();
+        assertThat(otherNode.isRevoked(EMAIL, issuedAt)).isTrue();
+    }
+
+    @Test
+    void revokingAgainMovesTheStoredRevocationForward() {
+        revocationList.revoke(EMAIL);
+        LocalDateTime first = revocationRepository.findById(EMAIL).orElseThrow().getRevokedAt();
+
+        revocationList.revoke(EMAIL);
+
+        assertThat(revocationRepository.count()).isEqualTo(1);
+        assertThat(revocationRepository.findById(EMAIL).orElseThrow().getRevokedAt()).isAfterOrEqualTo(first);
+    }
+
+    @Test
+    void refreshDropsExpiredRevocations() {
+        String expired = "former@example.com";
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(1);
+        revocationRepository.save(new UserRevocation(expired, longAgo, longAgo.plusMinutes(1)));
+
+        revocationList.refresh();
+
+        assertThat(revocationRepository.existsById(expired)).isFalse();
+        assertThat(revocationList.isRevoked(expired, new Date(0))).isFalse();
+    }
+}
@@ -0,0 +1,106 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.repository.AttachmentBlobRepository;
+import com.nbjgroup.support.JpaTestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Blob reference counting against the H2 fallback path; each service call commits its own transaction
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({AttachmentStorageService.class, DatabaseSupport.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttachmentStorageServiceBlobTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", uploadDir::toString);
+    }
+
+    @Autowired
+    private AttachmentStorageService storageService;
+
+    @Autowired
+    private AttachmentBlobRepository blobRepository;
+
+    @AfterEach
+    void clearBlobs() {
+        blobRepository.deleteAll();
+    }
+
+    @Test
+    void identicalUploadsShareOneBlobUntilTheLastRelease() throws IOException {
+        AttachmentStorageService.StoredFile first = store("same content");
+        AttachmentStorageService.StoredFile second = store("same content");
+
+        assertThat(first.deduplicated()).isFalse();
+        assertThat(second.deduplicated()).isTrue();
+        assertThat(second.path()).isEqualTo(first.path());
+        assertThat(blobRepository.findById(first.contentHash()).orElseThrow().getReferenceCount()).isEqualTo(2);
+
+        storageService.release(first.contentHash(), first.path().toString());
+        assertThat(Files.exists(first.path())).isTrue();
+        assertThat(blobRepository.findById(first.contentHash()).orElseThrow().getReferenceCount()).isEqualTo(1);
+
+        storageService.release(second.contentHash(), second.path().toString());
+        assertThat(Files.exists(first.path())).isFalse();
+        assertThat(blobRepository.existsById(first.contentHash())).isFalse();
+    }
+
+    @Test
+    void attachExistingTakesAReferenceOnlyToStoredBlobs() throws IOException {
+        AttachmentStorageService.StoredFile stored = store("reused content");
+
+        assertThat(storageService.attachExisting(stored.contentHash().toUpperCase())).isPresent();
+        assertThat(blobRepository.findById(stored.contentHash()).orElseThrow().getReferenceCount()).isEqualTo(2);
+
+        assertThat(storageService.attachExisting("0".repeat(64))).isEmpty();
+        assertThat(storageService.attachExisting("not a hash")).isEmpty();
+    }
+
+    @Test
+    void attachExistingRollsBackWhenTheBlobFileIsMissing() throws IOException {
+        AttachmentStorageService.StoredFile stored = store("lost content");
+        Files.delete(stored.path());
+
+        assertThat(storageService.attachExisting(stored.contentHash())).isEmpty();
+        assertThat(blobRepository.findById(stored.contentHash()).orElseThrow().getReferenceCount()).isEqualTo(1);
+    }
+
+    @Test
+    void releaseWithoutABlobRowLeavesBlobFilesAlone() throws IOException {
+        AttachmentStorageService.StoredFile stored = store("orphaned content");
+        blobRepository.deleteById(stored.contentHash());
+
+        storageService.release(stored.contentHash(), stored.path().toString());
+
+        assertThat(Files.exists(stored.path())).isTrue();
+    }
+
+    private AttachmentStorageService.StoredFile store(String content) throws IOException {
+        return storageService.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                "notes.txt", "text/plain");
+    }
+}
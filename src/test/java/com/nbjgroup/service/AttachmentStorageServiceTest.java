@@ -0,0 +1,74 @@
+package com.nbjgroup.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttachmentStorageServiceTest {
+
+    @Test
+    void sniffsImagesFromMagicBytes() {
+        assertThat(sniff(bytes(0xFF, 0xD8, 0xFF, 0xE0), "photo.png", "image/png")).isEqualTo("image/jpeg");
+        assertThat(sniff(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A), null, null)).isEqualTo("image/png");
+        assertThat(sniff(ascii("GIF89a"), null, null)).isEqualTo("image/gif");
+    }
+
+    @Test
+    void sniffsRiffAndIsoContainers() {
+        assertThat(sniff(ascii("RIFF\0\0\0\0WEBPVP8 "), null, null)).isEqualTo("image/webp");
+        assertThat(sniff(ascii("RIFF\0\0\0\0WAVEfmt "), null, null)).isEqualTo("audio/wav");
+        assertThat(sniff(ascii("\0\0\0\u0018ftypheic"), null, null)).isEqualTo("image/heic");
+        assertThat(sniff(ascii("\0\0\0\u0014ftypqt  "), null, null)).isEqualTo("video/quicktime");
+        assertThat(sniff(ascii("\0\0\0\u0018ftypisom"), null, null)).isEqualTo("video/mp4");
+    }
+
+    @Test
+    void tellsOfficeDocumentsApartByExtension() {
+        byte[] zip = bytes('P', 'K', 0x03, 0x04);
+        assertThat(sniff(zip, "quote.docx", null))
+                .isEqualTo("application/vnd.openxmlformats-officedocument.wordprocessingml.document");
+        assertThat(sniff(zip, "Costs.XLSX", null))
+                .isEqualTo("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        assertThat(sniff(zip, "photos.zip", null)).isEqualTo("application/zip");
+    }
+
+    @Test
+    void shortInputDoesNotMatchLongerSignatures() {
+        assertThat(sniff(bytes(0x89, 'P'), null, null)).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void fallsBackToTheNormalizedDeclaredType() {
+        assertThat(sniff(ascii("hello"), "notes.txt", "Text/Plain; charset=UTF-8")).isEqualTo("text/plain");
+        assertThat(sniff(ascii("hello"), "notes.txt", null)).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void rejectsMalformedWildcardOrOversizedDeclaredTypes() {
+        assertThat(AttachmentStorageService.normalizeContentType("not a type")).isEqualTo("application/octet-stream");
+        assertThat(AttachmentStorageService.normalizeContentType("image/*")).isEqualTo("application/octet-stream");
+        assertThat(AttachmentStorageService.normalizeContentType("application/" + "x".repeat(120)))
+                .isEqualTo("application/octet-stream");
+    }
+
+    private static String sniff(byte[] head, String filename, String declared) {
+        byte[] buffer = new byte[AttachmentStorageService.SNIFF_LENGTH];
+        int length = Math.min(head.length, buffer.length);
+        System.arraycopy(head, 0, buffer, 0, length);
+        return AttachmentStorageService.sniffContentType(buffer, length, filename, declared);
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
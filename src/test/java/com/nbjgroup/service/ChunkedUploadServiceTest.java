@@ -0,0 +1,208 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.repository.AttachmentBlobRepository;
+import com.nbjgroup.repository.ChunkedUploadRepository;
+import com.nbjgroup.support.JpaTestConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Chunked uploads against the session table; a second service instance stands in for another node
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.file.chunked-upload.lock-timeout=100",
+        "app.file.chunked-upload.max-sessions-per-owner=2"
+})
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({ChunkedUploadService.class, AttachmentStorageService.class, DatabaseSupport.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChunkedUploadServiceTest {
+
+    private static final String OWNER = "tenant@example.com";
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadProperties(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", uploadDir::toString);
+    }
+
+    @Autowired
+    private ChunkedUploadService uploadService;
+
+    @Autowired
+    private ChunkedUploadRepository uploadRepository;
+
+    @Autowired
+    private AttachmentBlobRepository blobRepository;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @AfterEach
+    void clearTables() {
+        uploadRepository.deleteAll();
+        blobRepository.deleteAll();
+    }
+
+    @Test
+    void anotherNodeResumesAnUploadAndHashesTheWholeFile() throws IOException {
+        ChunkedUploadService otherNode = newNode();
+        ChunkedUploadService.UploadSession session = uploadService.start(1L, OWNER, "notes.txt", "text/plain", 11);
+
+        assertThat(uploadService.append(session, 0, chunk("hello "))).isEqualTo(6);
+
+        ChunkedUploadService.UploadSession resumed = otherNode.find(session.getId(), 1L, OWNER).orElseThrow();
+        assertThat(resumed.getOffset()).isEqualTo(6);
+        assertThat(otherNode.append(resumed, 6, chunk("world"))).isEqualTo(11);
+
+        AttachmentStorageService.StoredFile stored = otherNode.commit(resumed);
+        assertThat(stored.contentHash()).isEqualTo(sha256("hello world"));
+        assertThat(stored.contentType()).isEqualTo("text/plain");
+        assertThat(uploadRepository.existsById(session.getId())).isFalse();
+    }
+
+    @Test
+    void findOnlyReturnsTheOwnersSessionForTheRequest() throws IOException {
+        ChunkedUploadService.UploadSession session = uploadService.start(1L, OWNER, "notes.txt", null, 5);
+
+        assertThat(uploadService.find(session.getId(), 1L, OWNER)).isPresent();
+        assertThat(uploadService.find(session.getId(), 2L, OWNER)).isEmpty();
+        assertThat(uploadService.find(session.getId(), 1L, "someone@example.com")).isEmpty();
+    }
+
+    @Test
+    void rejectsAChunkAtTheWrongOffset() throws IOException {
+        ChunkedUploadService.UploadSession session = uploadService.start(1L, OWNER, "notes.txt", null, 10);
+        uploadService.append(session, 0, chunk("abc"));
+
+        assertThatThrownBy(() -> uploadService.append(session, 0, chunk("abc")))
+                .isInstanceOfSatisfying(ChunkedUploadService.OffsetMismatchException.class,
+                        e -> assertThat(e.getExpectedOffset()).isEqualTo(3));
+    }
+
+    @Test
+    void limitsOpenSessionsPerOwner() throws IOException {
+        uploadService.start(1L, OWNER, "a.txt", null, 5);
+        uploadService.start(1L, OWNER, "b.txt", null, 5);
+
+        assertThatThrownBy(() -> uploadService.start(1L, OWNER, "c.txt", null, 5))
+                .isInstanceOf(ChunkedUploadService.TooManyUploadsException.class);
+        assertThat(uploadService.start(1L, "other@example.com", "c.txt", null, 5)).isNotNull();
+    }
+
+    @Test
+    void turnsRetriesAwayWhileAChunkIsStillArriving() throws Exception {
+        ChunkedUploadService otherNode = newNode();
+        ChunkedUploadService.UploadSession session = uploadService.start(1L, OWNER, "notes.txt", null, 10);
+        StalledStream stalled = new StalledStream("abc");
+
+        CompletableFuture<Long> inFlight = CompletableFuture.supplyAsync(() -> {
+            try {
+                return uploadService.append(session, 0, stalled);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(stalled.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The offset stays readable while the writer holds the session
+        assertThat(session.getOffset()).isEqualTo(3);
+
+        ChunkedUploadService.UploadSession retry = uploadService.find(session.getId(), 1L, OWNER).orElseThrow();
+        assertThatThrownBy(() -> uploadService.append(retry, 0, chunk("abc")))
+                .isInstanceOf(ChunkedUploadService.UploadBusyException.class);
+        ChunkedUploadService.UploadSession elsewhere = otherNode.find(session.getId(), 1L, OWNER).orElseThrow();
+        assertThatThrownBy(() -> otherNode.append(elsewhere, 0, chunk("abc")))
+                .isInstanceOf(ChunkedUploadService.UploadBusyException.class);
+
+        stalled.release.countDown();
+        assertThat(inFlight.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+        assertThat(otherNode.find(session.getId(), 1L, OWNER).orElseThrow().getOffset()).isEqualTo(3);
+    }
+
+    @Test
+    void expiresIdleSessions() throws IOException {
+        ChunkedUploadService.UploadSession session = uploadService.start(1L, OWNER, "notes.txt", null, 5);
+        uploadRepository.findById(session.getId()).ifPresent(upload -> {
+            upload.setLastActivity(upload.getLastActivity().minusDays(2));
+            uploadRepository.save(upload);
+        });
+
+        uploadService.expireSessions();
+
+        assertThat(uploadRepository.existsById(session.getId())).isFalse();
+    }
+
+    private ChunkedUploadService newNode() {
+        return applicationContext.getAutowireCapableBeanFactory().createBean(ChunkedUploadService.class);
+    }
+
+    private static InputStream chunk(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(String content) {
+        return HexFormat.of().formatHex(AttachmentStorageService.sha256().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Delivers its bytes, then blocks like a client that stopped sending until released
+     */
+    private static class StalledStream extends InputStream {
+        private final byte[] data;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private boolean delivered;
+
+        StalledStream(String content) {
+            this.data = content.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (!delivered) {
+                delivered = true;
+                System.arraycopy(data, 0, buffer, offset, data.length);
+                return data.length;
+            }
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.nbjgroup.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatabaseSupportTest {
+
+    @Test
+    void escapeLikeEscapesWildcardsAndTheEscapeCharacter() {
+        assertThat(DatabaseSupport.escapeLike("50%_off\\")).isEqualTo("50\\%\\_off\\\\");
+    }
+
+    @Test
+    void escapeLikeLeavesOrdinaryTextAlone() {
+        assertThat(DatabaseSupport.escapeLike("unit 4b")).isEqualTo("unit 4b");
+    }
+
+    @Test
+    void containsPatternWrapsTheEscapedValue() {
+        assertThat(DatabaseSupport.containsPattern("a_b")).isEqualTo("%a\\_b%");
+    }
+}
@@ -0,0 +1,63 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.dto.TenantSummary;
+import com.nbjgroup.entity.Tenant;
+import com.nbjgroup.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantDirectoryTest {
+
+    private final TenantDirectory directory = new TenantDirectory();
+
+    @Test
+    void ordersNamePrefixThenWordPrefixThenInfix() {
+        put(1, "Mark", "Stone", "1 Main Street");
+        put(2, "Anna", "Markham", "2 Oak Avenue");
+        put(3, "Tom", "Lee", "3 Landmark Road");
+        put(4, "Marko", "Ivic", "4 Elm Court");
+
+        assertThat(ids(directory.search("mark", 10))).containsExactly(1L, 4L, 2L, 3L);
+    }
+
+    @Test
+    void keepsTheBestMatchesWhenLimited() {
+        for (int i = 0; i < 30; i++) {
+            put(i, "Tenant" + (char) ('z' - i % 26), "Smith", i + " Smith Lane");
+        }
+        put(100, "Smithers", "Jones", "9 Oak Avenue");
+
+        List<TenantSummary> results = directory.search("smith", 3);
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).id()).isEqualTo(100L);
+        assertThat(results.get(1).fullName()).isEqualTo("Tenanta Smith");
+        assertThat(results.get(2).fullName()).isEqualTo("Tenantb Smith");
+    }
+
+    @Test
+    void findsNothingForUnknownOrEmptyQueries() {
+        put(1, "Mark", "Stone", "1 Main Street");
+
+        assertThat(directory.search("zzz", 10)).isEmpty();
+        assertThat(directory.search(" ", 10)).isEmpty();
+        assertThat(directory.search("mark", 0)).isEmpty();
+    }
+
+    private void put(long id, String firstName, String lastName, String address) {
+        User user = new User(firstName.toLowerCase() + id + "@example.com", "password", firstName, lastName, User.Role.TENANT);
+        user.setId(id);
+        Tenant tenant = new Tenant();
+        tenant.setId(id);
+        tenant.setUser(user);
+        tenant.setPropertyAddress(address);
+        directory.put(tenant);
+    }
+
+    private static List<Long> ids(List<TenantSummary> results) {
+        return results.stream().map(TenantSummary::id).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package com.nbjgroup.service;
+
+import com.nbjgroup.entity.MaintenanceRequestFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        thumbnailService = new ThumbnailService(1, 4);
+        ReflectionTestUtils.setField(thumbnailService, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(thumbnailService, "cacheMaxSize", Long.MAX_VALUE);
+        thumbnailService.loadCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.shutdown();
+    }
+
+    @Test
+    void generatesEverySizeFromOneDecodeKeepingTheAspectRatio() throws Exception {
+        MaintenanceRequestFile file = image("photo", 2000, 1000);
+
+        Path small = thumbnailService.getThumbnail(file, ThumbnailService.ThumbnailSize.SMALL).get(10, TimeUnit.SECONDS);
+
+        BufferedImage thumbnail = ImageIO.read(small.toFile());
+        assertThat(thumbnail.getWidth()).isEqualTo(160);
+        assertThat(thumbnail.getHeight()).isEqualTo(80);
+        assertThat(thumbnailPath("photo", "medium")).exists();
+        assertThat(thumbnailPath("photo", "large")).exists();
+        assertThat(thumbnailService.etagFor(file, ThumbnailService.ThumbnailSize.SMALL)).isEqualTo("\"photo-small\"");
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedThumbnailsOverTheCap() throws Exception {
+        thumbnailService.getThumbnail(image("older", 1200, 900), ThumbnailService.ThumbnailSize.SMALL).get(10, TimeUnit.SECONDS);
+        long oneSet = 0;
+        for (String size : new String[] {"small", "medium", "large"}) {
+            Path path = thumbnailPath("older", size);
+            oneSet += Files.size(path);
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        }
+        ReflectionTestUtils.setField(thumbnailService, "cacheMaxSize", oneSet * 3 / 2);
+
+        thumbnailService.getThumbnail(image("newer", 1200, 900), ThumbnailService.ThumbnailSize.SMALL).get(10, TimeUnit.SECONDS);
+
+        assertThat(thumbnailPath("older", "large")).doesNotExist();
+        assertThat(thumbnailPath("newer", "small")).exists();
+        assertThat(thumbnailPath("newer", "large")).exists();
+    }
+
+    @Test
+    void supportsOnlyContentTypesImageIoCanRead() throws Exception {
+        MaintenanceRequestFile file = image("photo", 10, 10);
+        assertThat(thumbnailService.supports(file)).isTrue();
+
+        file.setContentType("image/jpeg; charset=binary");
+        assertThat(thumbnailService.supports(file)).isTrue();
+
+        for (String contentType : new String[] {"image/heic", "image/webp", "application/pdf"}) {
+            file.setContentType(contentType);
+            assertThat(thumbnailService.supports(file)).as(contentType).isFalse();
+        }
+        file.setContentType(null);
+        assertThat(thumbnailService.supports(file)).isFalse();
+    }
+
+    @Test
+    void remembersSourcesThatFailToDecode() throws Exception {
+        Path source = uploadDir.resolve("broken.png");
+        Files.write(source, new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 13});
+        MaintenanceRequestFile file = new MaintenanceRequestFile();
+        file.setFilePath(source.toString());
+        file.setContentHash("broken");
+        file.setContentType("image/png");
+        assertThat(thumbnailService.supports(file)).isTrue();
+
+        assertThatThrownBy(() -> thumbnailService.getThumbnail(file, ThumbnailService.ThumbnailSize.SMALL).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+
+        // Neither offered nor decoded again
+        assertThat(thumbnailService.supports(file)).isFalse();
+        Files.delete(source);
+        assertThat(thumbnailService.getThumbnail(file, ThumbnailService.ThumbnailSize.SMALL))
+                .isCompletedExceptionally();
+    }
+
+    private MaintenanceRequestFile image(String contentHash, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        Path source = uploadDir.resolve(contentHash + ".png");
+        ImageIO.write(image, "png", source.toFile());
+
+        MaintenanceRequestFile file = new MaintenanceRequestFile();
+        file.setFilePath(source.toString());
+        file.setContentHash(contentHash);
+        file.setContentType("image/png");
+        return file;
+    }
+
+    private Path thumbnailPath(String contentHash, String size) {
+        return uploadDir.resolve("thumbnails").resolve(contentHash + "-" + size + ".jpg");
+    }
+}
@@ -0,0 +1,16 @@
+package com.nbjgroup.support;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * Configuration for @DataJpaTest slices. The application class component-scans everything,
+ * which would pull the web and security beans into every slice, so JPA tests name this instead
+ * and @Import the services they exercise.
+ */
+@Configuration
+@AutoConfigurationPackage(basePackages = "com.nbjgroup")
+@EnableJpaAuditing
+public class JpaTestConfiguration {
+}
@@ -0,0 +1,32 @@
+package com.nbjgroup.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashingTest {
+
+    private static final long K0 = 0x0706050403020100L;
+    private static final long K1 = 0x0F0E0D0C0B0A0908L;
+
+    @Test
+    void sipHashMatchesTheReferenceVectors() {
+        assertThat(Hashing.sipHash24(K0, K1, sequence(0))).isEqualTo(0x726fdb47dd0e0e31L);
+        assertThat(Hashing.sipHash24(K0, K1, sequence(8))).isEqualTo(0x93f5f5799a932462L);
+        assertThat(Hashing.sipHash24(K0, K1, sequence(15))).isEqualTo(0xa129ca6149be45e5L);
+    }
+
+    @Test
+    void sipHashDependsOnTheKey() {
+        byte[] data = sequence(15);
+        assertThat(Hashing.sipHash24(K0, K1 + 1, data)).isNotEqualTo(Hashing.sipHash24(K0, K1, data));
+    }
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return bytes;
+    }
+}